@@ -28,6 +28,7 @@ if [ "$ORDER_COUNT" -lt 1000 ]; then
     echo "WARNING: Database has too few orders for meaningful load test."
     echo "The pre-seeded database should have 50,000 orders."
     echo "Please ensure app/data/orders.db exists and is not corrupted."
+    echo "Or generate a dataset with com.acme.orders.tools.DatasetGenerator (see README)."
     exit 1
 fi
 
@@ -140,6 +141,48 @@ echo "  Individual:$TIMES"
 echo "  Average: ${AVG6}ms"
 echo ""
 
+# Test 7: SQL round trips per update, counted by the statement recorder
+echo "Test 7: SQL round trips per PUT /api/orders/{id}"
+echo "  Running 5 requests..."
+RECORDER_WAS_ENABLED=$(curl -s "$BASE_URL/api/admin/sql" | grep -o '"enabled":[a-z]*' | cut -d: -f2)
+curl -s -X PUT "$BASE_URL/api/admin/sql/enabled?value=true" > /dev/null
+curl -s -X DELETE "$BASE_URL/api/admin/sql" > /dev/null
+for i in $(seq 1 5); do
+    ID=$((RANDOM % ORDER_COUNT + 1))
+    curl -s -X PUT "$BASE_URL/api/orders/$ID" \
+        -H "Content-Type: application/json" \
+        -d '{"customerName":"Updated Customer","status":"SHIPPED","amount":149.99}' \
+        > /dev/null
+done
+STATEMENTS=$(curl -s "$BASE_URL/api/admin/sql" | grep -o '"statementCount":[0-9]*' | cut -d: -f2)
+curl -s -X PUT "$BASE_URL/api/admin/sql/enabled?value=${RECORDER_WAS_ENABLED:-false}" > /dev/null
+TRIPS7="$((STATEMENTS / 5)).$(( (STATEMENTS * 10 / 5) % 10 ))"
+echo "  Statements per update: ${TRIPS7}"
+echo ""
+
+# Test 8: write throughput with concurrent clients; compare runs with different orders.sharding.shards
+WRITERS=8
+WRITES_PER_WRITER=25
+echo "Test 8: concurrent POST /api/orders"
+echo "  Running $WRITERS writers x $WRITES_PER_WRITER requests..."
+START=$(date +%s%N)
+for w in $(seq 1 $WRITERS); do
+    (
+        for i in $(seq 1 $WRITES_PER_WRITER); do
+            curl -s -X POST "$BASE_URL/api/orders" \
+                -H "Content-Type: application/json" \
+                -d "{\"orderNumber\":\"ORD-LOAD-$w-$(date +%s%N)\",\"customerName\":\"Load Customer\",\"status\":\"PENDING\",\"amount\":19.99}" \
+                > /dev/null
+        done
+    ) &
+done
+wait
+END=$(date +%s%N)
+ELAPSED_MS=$(( (END - START) / 1000000 ))
+THROUGHPUT8=$(( WRITERS * WRITES_PER_WRITER * 1000 / (ELAPSED_MS > 0 ? ELAPSED_MS : 1) ))
+echo "  Throughput: ${THROUGHPUT8} orders/s"
+echo ""
+
 # Summary
 echo "========================================"
 echo "  Results Summary"
@@ -153,6 +196,8 @@ printf "  %-45s %6dms\n" "GET  /api/orders/number/{orderNumber}/details" "$AVG3"
 printf "  %-45s %6dms\n" "POST /api/orders" "$AVG4"
 printf "  %-45s %6dms\n" "PUT  /api/orders/{id}" "$AVG5"
 printf "  %-45s %6dms\n" "GET  /api/orders/recent?limit=100" "$AVG6"
+printf "  %-45s %8s\n" "PUT  /api/orders/{id} SQL statements/request" "$TRIPS7"
+printf "  %-45s %6d/s\n" "POST /api/orders ($WRITERS concurrent writers)" "$THROUGHPUT8"
 echo ""
 echo "  Target: All endpoints should respond in <100ms"
 echo ""
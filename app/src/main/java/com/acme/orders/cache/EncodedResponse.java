@@ -0,0 +1,53 @@
+package com.acme.orders.cache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * An already-serialized response body, held either as a heap byte[] or in a direct
+ * (off-heap) buffer. Instances are immutable and safe to write concurrently.
+ */
+public final class EncodedResponse {
+
+    private final byte[] heapBytes;
+    private final ByteBuffer offHeapBytes;
+
+    private EncodedResponse(byte[] heapBytes, ByteBuffer offHeapBytes) {
+        this.heapBytes = heapBytes;
+        this.offHeapBytes = offHeapBytes;
+    }
+
+    public static EncodedResponse onHeap(byte[] bytes) {
+        return new EncodedResponse(bytes, null);
+    }
+
+    public static EncodedResponse offHeap(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        return new EncodedResponse(null, buffer.asReadOnlyBuffer());
+    }
+
+    public boolean isOffHeap() {
+        return offHeapBytes != null;
+    }
+
+    public int size() {
+        return heapBytes != null ? heapBytes.length : offHeapBytes.capacity();
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        if (heapBytes != null) {
+            out.write(heapBytes);
+            return;
+        }
+        // duplicate() gives this writer its own position; the channel is not closed so the stream stays open
+        ByteBuffer buffer = offHeapBytes.duplicate();
+        WritableByteChannel channel = Channels.newChannel(out);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
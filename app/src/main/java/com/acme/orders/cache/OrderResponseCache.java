@@ -0,0 +1,157 @@
+package com.acme.orders.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of encoded order-details JSON keyed by order number, checked against the
+ * order's id and version column. A lookup with a different id or version is a miss, so a
+ * stale entry is never served even if an invalidation was missed; explicit invalidation
+ * just frees the memory early. Eviction is by total encoded size.
+ */
+@Component
+public class OrderResponseCache {
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final boolean offHeap;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<Long, String> orderNumbersById = new HashMap<>();
+    private long currentBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public OrderResponseCache(
+            @Value("${orders.response-cache.enabled:true}") boolean enabled,
+            @Value("${orders.response-cache.max-bytes:67108864}") long maxBytes,
+            @Value("${orders.response-cache.off-heap:false}") boolean offHeap) {
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.offHeap = offHeap;
+    }
+
+    public EncodedResponse get(String orderNumber, Long orderId, long version) {
+        if (!enabled) {
+            return null;
+        }
+        synchronized (this) {
+            Entry entry = entries.get(orderNumber);
+            if (entry != null && entry.version == version && Objects.equals(entry.orderId, orderId)) {
+                hits.increment();
+                return entry.body;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public EncodedResponse put(String orderNumber, Long orderId, long version, byte[] json) {
+        if (!enabled || json.length > maxBytes) {
+            // Not stored, so a direct buffer would only wait for GC to free it
+            return EncodedResponse.onHeap(json);
+        }
+        EncodedResponse body = offHeap ? EncodedResponse.offHeap(json) : EncodedResponse.onHeap(json);
+        synchronized (this) {
+            remove(orderNumber);
+            entries.put(orderNumber, new Entry(orderId, version, body));
+            if (orderId != null) {
+                orderNumbersById.put(orderId, orderNumber);
+            }
+            currentBytes += body.size();
+            evictToBudget();
+        }
+        return body;
+    }
+
+    public synchronized void invalidate(String orderNumber) {
+        remove(orderNumber);
+    }
+
+    public synchronized void invalidateByOrderId(Long orderId) {
+        String orderNumber = orderNumbersById.get(orderId);
+        if (orderNumber != null) {
+            remove(orderNumber);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        orderNumbersById.clear();
+        currentBytes = 0;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private void remove(String orderNumber) {
+        Entry removed = entries.remove(orderNumber);
+        if (removed != null) {
+            forget(orderNumber, removed);
+        }
+    }
+
+    private void evictToBudget() {
+        Iterator<Map.Entry<String, Entry>> lru = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && lru.hasNext()) {
+            Map.Entry<String, Entry> eldest = lru.next();
+            lru.remove();
+            forget(eldest.getKey(), eldest.getValue());
+            evictions.increment();
+        }
+    }
+
+    private void forget(String orderNumber, Entry entry) {
+        currentBytes -= entry.body.size();
+        if (entry.orderId != null) {
+            orderNumbersById.remove(entry.orderId, orderNumber);
+        }
+    }
+
+    private static final class Entry {
+        private final Long orderId;
+        private final long version;
+        private final EncodedResponse body;
+
+        private Entry(Long orderId, long version, EncodedResponse body) {
+            this.orderId = orderId;
+            this.version = version;
+            this.body = body;
+        }
+    }
+}
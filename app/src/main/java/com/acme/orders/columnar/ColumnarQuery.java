@@ -0,0 +1,82 @@
+package com.acme.orders.columnar;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class ColumnarQuery {
+
+    public enum SortField { AMOUNT, CREATED_AT }
+
+    private String status;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private LocalDateTime createdAfter;
+    private LocalDateTime createdBefore;
+    private SortField sortBy = SortField.AMOUNT;
+    private boolean descending = true;
+    private int limit = 100;
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public BigDecimal getMinAmount() {
+        return minAmount;
+    }
+
+    public void setMinAmount(BigDecimal minAmount) {
+        this.minAmount = minAmount;
+    }
+
+    public BigDecimal getMaxAmount() {
+        return maxAmount;
+    }
+
+    public void setMaxAmount(BigDecimal maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    public LocalDateTime getCreatedAfter() {
+        return createdAfter;
+    }
+
+    public void setCreatedAfter(LocalDateTime createdAfter) {
+        this.createdAfter = createdAfter;
+    }
+
+    public LocalDateTime getCreatedBefore() {
+        return createdBefore;
+    }
+
+    public void setCreatedBefore(LocalDateTime createdBefore) {
+        this.createdBefore = createdBefore;
+    }
+
+    public SortField getSortBy() {
+        return sortBy;
+    }
+
+    public void setSortBy(SortField sortBy) {
+        this.sortBy = sortBy;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public void setDescending(boolean descending) {
+        this.descending = descending;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+}
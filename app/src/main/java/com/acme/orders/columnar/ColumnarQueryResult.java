@@ -0,0 +1,27 @@
+package com.acme.orders.columnar;
+
+import java.util.List;
+
+public class ColumnarQueryResult {
+    private final long matched;
+    private final long scanned;
+    private final List<OrderSnapshotRow> rows;
+
+    public ColumnarQueryResult(long matched, long scanned, List<OrderSnapshotRow> rows) {
+        this.matched = matched;
+        this.scanned = scanned;
+        this.rows = rows;
+    }
+
+    public long getMatched() {
+        return matched;
+    }
+
+    public long getScanned() {
+        return scanned;
+    }
+
+    public List<OrderSnapshotRow> getRows() {
+        return rows;
+    }
+}
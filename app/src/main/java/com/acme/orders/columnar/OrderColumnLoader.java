@@ -0,0 +1,75 @@
+package com.acme.orders.columnar;
+
+import com.acme.orders.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fills {@link OrderColumnStore} from the orders table in the background once the
+ * application is ready. The scan walks the table in short id-range chunks rather than
+ * one long statement so it never holds a read lock long enough to stall writers.
+ */
+@Component
+public class OrderColumnLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderColumnLoader.class);
+
+    private static final int CHUNK_SIZE = 50_000;
+
+    private final OrderRepository orderRepository;
+    private final OrderColumnStore columnStore;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public OrderColumnLoader(OrderRepository orderRepository, OrderColumnStore columnStore) {
+        this.orderRepository = orderRepository;
+        this.columnStore = columnStore;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (columnStore.isEnabled()) {
+            reloadAsync();
+        }
+    }
+
+    public boolean reloadAsync() {
+        if (!columnStore.isEnabled() || !running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread loader = new Thread(() -> {
+            try {
+                load();
+            } finally {
+                running.set(false);
+            }
+        }, "columnar-loader");
+        loader.setDaemon(true);
+        loader.start();
+        return true;
+    }
+
+    private void load() {
+        long startTime = System.currentTimeMillis();
+        OrderColumnStore.Columns builder = columnStore.beginLoad((int) orderRepository.count());
+        try {
+            int[] loaded = {0};
+            orderRepository.scanOrderColumns(CHUNK_SIZE, (id, version, status, amount, amountNull, createdAtMillis) -> {
+                columnStore.appendLoaded(builder, id, version, status, amount, amountNull, createdAtMillis);
+                loaded[0]++;
+            });
+            if (columnStore.finishLoad(builder)) {
+                logger.info("Columnar snapshot loaded {} orders in {}ms", loaded[0], System.currentTimeMillis() - startTime);
+            } else {
+                logger.warn("Columnar snapshot load discarded: a write could not be applied while it ran");
+            }
+        } catch (RuntimeException e) {
+            columnStore.abortLoad();
+            logger.error("Columnar snapshot load failed", e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.acme.orders.columnar;
+
+/**
+ * Receives the columns {@link OrderColumnStore} keeps, one order at a time, in ascending id order.
+ */
+@FunctionalInterface
+public interface OrderColumnRowHandler {
+
+    void accept(long id, long version, String status, double amount, boolean amountNull, long createdAtMillis);
+}
@@ -0,0 +1,621 @@
+package com.acme.orders.columnar;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Column-oriented, in-memory copy of the filterable order fields: id, amount in cents,
+ * created_at as epoch millis, a dictionary-encoded status and the row version, about 34
+ * bytes per order. Rows are kept sorted by id; deletes leave a tombstone until the next reload.
+ *
+ * <p>{@link OrderColumnLoader} fills it with a keyset scan, and OrderRepository pushes
+ * every committed write through the {@code on*} hooks. Writes that arrive during a load
+ * are journaled and replayed onto the new snapshot, so nothing committed mid-scan is lost.
+ * Writes that arrive while a query is scanning are journaled the same way and applied when
+ * the last running scan finishes, so a long query never holds up the write path.
+ *
+ * <p>The hooks never throw: the row is already committed when they run. A write that cannot
+ * be applied is logged and takes the snapshot out of service until the next reload.
+ *
+ * <p>Hooks run after their statement commits, so concurrent writers can deliver them out
+ * of commit order. A row only takes values from a higher version than it holds, and a
+ * tombstone is final (ids are AUTOINCREMENT and never reused), so any delivery order ends
+ * in the committed state.
+ */
+@Component
+public class OrderColumnStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderColumnStore.class);
+
+    static final long NULL_AMOUNT = Long.MIN_VALUE;
+    private static final short DELETED = -1;
+    private static final short ANY_STATUS = -2;
+    private static final int LEAF_ROWS = 1 << 16;
+    private static final int MAX_LIMIT = 1000;
+    private static final BigDecimal MAX_CENTS = BigDecimal.valueOf(Long.MAX_VALUE);
+    private static final BigDecimal MIN_CENTS = BigDecimal.valueOf(NULL_AMOUNT + 1);
+
+    private final boolean enabled;
+    private final ForkJoinPool pool;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Short> statusCodes = new ConcurrentHashMap<>();
+    private final List<String> statusNames = new CopyOnWriteArrayList<>();
+
+    // Guarded by lock
+    private Columns columns = new Columns(0);
+    private boolean ready;
+    private List<Consumer<Columns>> pendingWrites;
+    private boolean loadInvalidated;
+    private int activeScans;
+    private final List<Consumer<Columns>> scanJournal = new ArrayList<>();
+
+    public OrderColumnStore(
+            @Value("${orders.columnar.enabled:false}") boolean enabled,
+            @Value("${orders.columnar.parallelism:0}") int parallelism) {
+        this.enabled = enabled;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isLoading() {
+        lock.readLock().lock();
+        try {
+            return pendingWrites != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getRowCount() {
+        lock.readLock().lock();
+        try {
+            return columns.size - columns.deleted;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getTombstoneCount() {
+        lock.readLock().lock();
+        try {
+            return columns.deleted;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<String> getStatusDictionary() {
+        return List.copyOf(statusNames);
+    }
+
+    // --- write hooks, called by the repository after the statement succeeds ---
+
+    public void onInsert(long id, String status, BigDecimal amount, LocalDateTime createdAt) {
+        onUpdate(id, 0, status, amount, createdAt);
+    }
+
+    // Carries the whole row so an update that overtakes its insert still lands
+    public void onUpdate(long id, long version, String status, BigDecimal amount, LocalDateTime createdAt) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            short statusCode = encodeStatus(status);
+            long cents = toCents(amount);
+            long createdMillis = toEpochMillis(createdAt);
+            write(c -> c.upsert(id, version, statusCode, cents, createdMillis));
+        } catch (RuntimeException e) {
+            invalidate(id, e);
+        }
+    }
+
+    public void onDelete(long id) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            write(c -> c.delete(id));
+        } catch (RuntimeException e) {
+            invalidate(id, e);
+        }
+    }
+
+    private void write(Consumer<Columns> op) {
+        lock.writeLock().lock();
+        try {
+            if (pendingWrites != null) {
+                pendingWrites.add(op);
+            }
+            if (ready) {
+                if (activeScans > 0) {
+                    scanJournal.add(op);
+                } else {
+                    op.accept(columns);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // The snapshot no longer matches the table, so stop serving it (and any load in flight)
+    private void invalidate(long id, RuntimeException cause) {
+        logger.warn("Columnar snapshot could not apply write to order {}; disabled until the next reload", id, cause);
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            columns = new Columns(0);
+            scanJournal.clear();
+            if (pendingWrites != null) {
+                loadInvalidated = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- loading ---
+
+    /**
+     * Starts journaling writes and returns an empty builder for the loader to append to.
+     * Must be called before the first row is read so no write falls between scan and journal.
+     */
+    Columns beginLoad(int expectedRows) {
+        lock.writeLock().lock();
+        try {
+            if (pendingWrites != null) {
+                throw new IllegalStateException("Columnar snapshot is already loading");
+            }
+            pendingWrites = new ArrayList<>();
+            loadInvalidated = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return new Columns(Math.max(16, expectedRows));
+    }
+
+    void appendLoaded(Columns builder, long id, long version, String status, double amount, boolean amountNull,
+                      long createdMillis) {
+        // Math.round saturates; keep the low end clear of the NULL marker
+        long cents = amountNull ? NULL_AMOUNT : Math.max(Math.round(amount * 100), NULL_AMOUNT + 1);
+        builder.append(id, version, encodeStatus(status), cents, createdMillis);
+    }
+
+    /**
+     * Publishes the loaded snapshot. Returns false, leaving the store not ready, if a write
+     * failed to apply during the load and so is missing from {@code builder}.
+     */
+    boolean finishLoad(Columns builder) {
+        lock.writeLock().lock();
+        try {
+            pendingWrites.forEach(op -> op.accept(builder));
+            pendingWrites = null;
+            if (loadInvalidated) {
+                loadInvalidated = false;
+                return false;
+            }
+            // Journaled writes committed before the load started, so the scan already saw them
+            scanJournal.clear();
+            columns = builder;
+            ready = true;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void abortLoad() {
+        lock.writeLock().lock();
+        try {
+            pendingWrites = null;
+            loadInvalidated = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- querying ---
+
+    /**
+     * Pins the current columns for a scan. Until the matching {@link #endScan()}, writes are
+     * journaled instead of applied, so the arrays can be read without holding the lock.
+     */
+    Columns beginScan() {
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                throw new IllegalStateException("Columnar snapshot is not loaded");
+            }
+            activeScans++;
+            return columns;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void endScan() {
+        lock.writeLock().lock();
+        try {
+            if (--activeScans == 0) {
+                // invalidate() clears the journal, so anything left belongs to the live columns
+                scanJournal.forEach(op -> op.accept(columns));
+                scanJournal.clear();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ColumnarQueryResult query(ColumnarQuery query) {
+        int limit = Math.max(1, Math.min(query.getLimit(), MAX_LIMIT));
+        Columns c = beginScan();
+        try {
+            short status = ANY_STATUS;
+            if (query.getStatus() != null) {
+                Short code = statusCodes.get(query.getStatus());
+                if (code == null) {
+                    return new ColumnarQueryResult(0, c.size, List.of());
+                }
+                status = code;
+            }
+
+            Filter filter = new Filter(
+                    status,
+                    query.getMinAmount() != null || query.getMaxAmount() != null,
+                    query.getMinAmount() != null ? toCents(query.getMinAmount()) : Long.MIN_VALUE,
+                    query.getMaxAmount() != null ? toCents(query.getMaxAmount()) : Long.MAX_VALUE,
+                    query.getCreatedAfter() != null ? toEpochMillis(query.getCreatedAfter()) : Long.MIN_VALUE,
+                    query.getCreatedBefore() != null ? toEpochMillis(query.getCreatedBefore()) : Long.MAX_VALUE,
+                    query.getSortBy() == ColumnarQuery.SortField.AMOUNT,
+                    query.isDescending(),
+                    limit);
+
+            TopK top = pool.invoke(new ScanTask(c, filter, 0, c.size));
+            return new ColumnarQueryResult(top.matched, c.size, toRows(c, top));
+        } finally {
+            endScan();
+        }
+    }
+
+    private List<OrderSnapshotRow> toRows(Columns c, TopK top) {
+        Integer[] order = new Integer[top.size];
+        for (int i = 0; i < top.size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byRank = Long.compare(top.ranks[b], top.ranks[a]);
+            return byRank != 0 ? byRank : Long.compare(c.ids[top.rows[a]], c.ids[top.rows[b]]);
+        });
+
+        List<OrderSnapshotRow> rows = new ArrayList<>(top.size);
+        for (int i : order) {
+            int row = top.rows[i];
+            long cents = c.amountCents[row];
+            rows.add(new OrderSnapshotRow(
+                    c.ids[row],
+                    statusNames.get(c.statusCodes[row]),
+                    cents == NULL_AMOUNT ? null : BigDecimal.valueOf(cents, 2),
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(c.createdAtMillis[row]), zone)));
+        }
+        return rows;
+    }
+
+    // --- encoding ---
+
+    private short encodeStatus(String status) {
+        String name = status != null ? status : "";
+        Short code = statusCodes.get(name);
+        if (code != null) {
+            return code;
+        }
+        synchronized (statusNames) {
+            code = statusCodes.get(name);
+            if (code == null) {
+                if (statusNames.size() >= Short.MAX_VALUE) {
+                    throw new IllegalStateException("Too many distinct order statuses for the columnar snapshot");
+                }
+                code = (short) statusNames.size();
+                statusNames.add(name);
+                statusCodes.put(name, code);
+            }
+            return code;
+        }
+    }
+
+    // Saturates like the loader's Math.round, so out-of-range amounts still sort and filter
+    private static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return NULL_AMOUNT;
+        }
+        BigDecimal cents = amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP);
+        if (cents.compareTo(MAX_CENTS) > 0) {
+            return Long.MAX_VALUE;
+        }
+        if (cents.compareTo(MIN_CENTS) < 0) {
+            return NULL_AMOUNT + 1;
+        }
+        return cents.longValue();
+    }
+
+    private long toEpochMillis(LocalDateTime time) {
+        return time == null ? 0 : time.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Growable primitive column arrays, sorted by id.
+     */
+    static final class Columns {
+        long[] ids;
+        long[] amountCents;
+        long[] createdAtMillis;
+        long[] versions;
+        short[] statusCodes;
+        int size;
+        int deleted;
+
+        Columns(int capacity) {
+            ids = new long[capacity];
+            amountCents = new long[capacity];
+            createdAtMillis = new long[capacity];
+            versions = new long[capacity];
+            statusCodes = new short[capacity];
+        }
+
+        void append(long id, long version, short status, long cents, long createdMillis) {
+            if (size > 0 && id <= ids[size - 1]) {
+                upsert(id, version, status, cents, createdMillis);
+                return;
+            }
+            ensureCapacity(size + 1);
+            set(size++, id, version, status, cents, createdMillis);
+        }
+
+        // Keeps whichever of the stored and incoming row has the higher version
+        void upsert(long id, long version, short status, long cents, long createdMillis) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                if (statusCodes[index] != DELETED && version > versions[index]) {
+                    set(index, id, version, status, cents, createdMillis);
+                }
+                return;
+            }
+            insertAt(-(index + 1), id, version, status, cents, createdMillis);
+        }
+
+        // A delete that overtakes its insert leaves a tombstone for the insert to find
+        void delete(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                insertAt(-(index + 1), id, 0, DELETED, 0, 0);
+                deleted++;
+            } else if (statusCodes[index] != DELETED) {
+                statusCodes[index] = DELETED;
+                deleted++;
+            }
+        }
+
+        // Ids are autoincrement so this is almost always an append
+        private void insertAt(int index, long id, long version, short status, long cents, long createdMillis) {
+            ensureCapacity(size + 1);
+            int tail = size - index;
+            if (tail > 0) {
+                System.arraycopy(ids, index, ids, index + 1, tail);
+                System.arraycopy(amountCents, index, amountCents, index + 1, tail);
+                System.arraycopy(createdAtMillis, index, createdAtMillis, index + 1, tail);
+                System.arraycopy(versions, index, versions, index + 1, tail);
+                System.arraycopy(statusCodes, index, statusCodes, index + 1, tail);
+            }
+            set(index, id, version, status, cents, createdMillis);
+            size++;
+        }
+
+        private void set(int index, long id, long version, short status, long cents, long createdMillis) {
+            ids[index] = id;
+            versions[index] = version;
+            statusCodes[index] = status;
+            amountCents[index] = cents;
+            createdAtMillis[index] = createdMillis;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= ids.length) {
+                return;
+            }
+            int capacity = Math.max(required, ids.length + (ids.length >> 1) + 16);
+            ids = Arrays.copyOf(ids, capacity);
+            amountCents = Arrays.copyOf(amountCents, capacity);
+            createdAtMillis = Arrays.copyOf(createdAtMillis, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            statusCodes = Arrays.copyOf(statusCodes, capacity);
+        }
+    }
+
+    private static final class Filter {
+        final short status;
+        final boolean amountBounded;
+        final long minCents;
+        final long maxCents;
+        final long createdFrom;
+        final long createdTo;
+        final boolean sortByAmount;
+        final boolean descending;
+        final int limit;
+
+        Filter(short status, boolean amountBounded, long minCents, long maxCents, long createdFrom, long createdTo,
+               boolean sortByAmount, boolean descending, int limit) {
+            this.status = status;
+            this.amountBounded = amountBounded;
+            this.minCents = minCents;
+            this.maxCents = maxCents;
+            this.createdFrom = createdFrom;
+            this.createdTo = createdTo;
+            this.sortByAmount = sortByAmount;
+            this.descending = descending;
+            this.limit = limit;
+        }
+
+        // Higher rank sorts first; NULL amounts always rank last
+        long rank(long cents, long createdMillis) {
+            long key = sortByAmount ? cents : createdMillis;
+            if (sortByAmount && cents == NULL_AMOUNT) {
+                return Long.MIN_VALUE;
+            }
+            return descending ? key : ~key;
+        }
+    }
+
+    private static final class ScanTask extends RecursiveTask<TopK> {
+        private final Columns c;
+        private final Filter filter;
+        private final int from;
+        private final int to;
+
+        ScanTask(Columns c, Filter filter, int from, int to) {
+            this.c = c;
+            this.filter = filter;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TopK compute() {
+            if (to - from > LEAF_ROWS) {
+                int mid = (from + to) >>> 1;
+                ScanTask left = new ScanTask(c, filter, from, mid);
+                left.fork();
+                TopK right = new ScanTask(c, filter, mid, to).compute();
+                return left.join().merge(right);
+            }
+
+            TopK top = new TopK(filter.limit);
+            long[] amounts = c.amountCents;
+            long[] created = c.createdAtMillis;
+            short[] statuses = c.statusCodes;
+            for (int row = from; row < to; row++) {
+                short status = statuses[row];
+                if (status == DELETED || (filter.status != ANY_STATUS && status != filter.status)) {
+                    continue;
+                }
+                long cents = amounts[row];
+                if (filter.amountBounded && (cents == NULL_AMOUNT || cents < filter.minCents || cents > filter.maxCents)) {
+                    continue;
+                }
+                long createdMillis = created[row];
+                if (createdMillis < filter.createdFrom || createdMillis > filter.createdTo) {
+                    continue;
+                }
+                top.matched++;
+                top.offer(filter.rank(cents, createdMillis), row);
+            }
+            return top;
+        }
+    }
+
+    /**
+     * Bounded min-heap of (rank, row) keeping the {@code capacity} highest ranks.
+     */
+    private static final class TopK {
+        final long[] ranks;
+        final int[] rows;
+        int size;
+        long matched;
+
+        TopK(int capacity) {
+            ranks = new long[capacity];
+            rows = new int[capacity];
+        }
+
+        void offer(long rank, int row) {
+            if (size < ranks.length) {
+                ranks[size] = rank;
+                rows[size] = row;
+                siftUp(size++);
+            } else if (rank > ranks[0]) {
+                ranks[0] = rank;
+                rows[0] = row;
+                siftDown(0);
+            }
+        }
+
+        TopK merge(TopK other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.ranks[i], other.rows[i]);
+            }
+            matched += other.matched;
+            return this;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (ranks[parent] <= ranks[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    return;
+                }
+                int smallest = left + 1 < size && ranks[left + 1] < ranks[left] ? left + 1 : left;
+                if (ranks[i] <= ranks[smallest]) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long rank = ranks[a];
+            ranks[a] = ranks[b];
+            ranks[b] = rank;
+            int row = rows[a];
+            rows[a] = rows[b];
+            rows[b] = row;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.acme.orders.columnar;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class OrderSnapshotRow {
+    private final long id;
+    private final String status;
+    private final BigDecimal amount;
+    private final LocalDateTime createdAt;
+
+    public OrderSnapshotRow(long id, String status, BigDecimal amount, LocalDateTime createdAt) {
+        this.id = id;
+        this.status = status;
+        this.amount = amount;
+        this.createdAt = createdAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,19 @@
+package com.acme.orders.config;
+
+import com.acme.orders.monitoring.InstrumentedJdbcTemplate;
+import com.acme.orders.monitoring.SqlStatementRecorder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class JdbcConfig {
+
+    // Replaces Boot's auto-configured JdbcTemplate (it backs off when one is defined)
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource, SqlStatementRecorder recorder) {
+        return new InstrumentedJdbcTemplate(dataSource, recorder);
+    }
+}
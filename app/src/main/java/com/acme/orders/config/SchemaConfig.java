@@ -0,0 +1,26 @@
+package com.acme.orders.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(SqlInitializationProperties.class)
+@ConditionalOnProperty(prefix = "spring.sql.init", name = "enabled", matchIfMissing = true)
+public class SchemaConfig {
+
+    // Boot's own script initializer backs off when this bean is present
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer dataSourceScriptDatabaseInitializer(
+            DataSource dataSource,
+            SqlInitializationProperties properties,
+            @Value("${orders.schema.version:1}") int schemaVersion) {
+        return new VersionedSchemaInitializer(dataSource, properties, schemaVersion);
+    }
+}
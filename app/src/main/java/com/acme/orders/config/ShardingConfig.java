@@ -0,0 +1,87 @@
+package com.acme.orders.config;
+
+import com.acme.orders.monitoring.InstrumentedJdbcTemplate;
+import com.acme.orders.monitoring.SqlStatementRecorder;
+import com.acme.orders.repository.OrderShards;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class ShardingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardingConfig.class);
+
+    /**
+     * One shard keeps the repository on the primary datasource. More than one spreads
+     * orders over {@code orders.sharding.path-template} files, each with its own pool and
+     * schema, and leaves the primary database unused.
+     */
+    @Bean
+    public OrderShards orderShards(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            SqlStatementRecorder recorder,
+            @Value("${orders.sharding.shards:1}") int shardCount,
+            @Value("${orders.sharding.path-template:./data/orders-shard-%d.db}") String pathTemplate,
+            @Value("${orders.sharding.pool-size:4}") int poolSize,
+            @Value("${spring.sql.init.schema-locations:classpath:schema.sql}") List<String> schemaLocations,
+            @Value("${orders.schema.version:1}") int schemaVersion) {
+        if (shardCount <= 1) {
+            return OrderShards.single(jdbcTemplate, transactionTemplate);
+        }
+
+        SqlInitializationProperties schema = new SqlInitializationProperties();
+        schema.setSchemaLocations(schemaLocations);
+        schema.setMode(DatabaseInitializationMode.ALWAYS);
+
+        List<OrderShards.Shard> shards = new ArrayList<>(shardCount);
+        List<HikariDataSource> dataSources = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            Path file = Paths.get(String.format(pathTemplate, i));
+            createParentDirectories(file);
+
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("orders-shard-" + i);
+            dataSource.setDriverClassName("org.sqlite.JDBC");
+            dataSource.setJdbcUrl("jdbc:sqlite:" + file);
+            dataSource.setMaximumPoolSize(poolSize);
+            dataSources.add(dataSource);
+
+            new VersionedSchemaInitializer(dataSource, schema, schemaVersion).initializeDatabase();
+            shards.add(new OrderShards.Shard(i,
+                new InstrumentedJdbcTemplate(dataSource, recorder),
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource))));
+        }
+        logger.info("Order storage sharded over {} files ({})", shardCount, pathTemplate);
+        return new OrderShards(shards, dataSources);
+    }
+
+    private static void createParentDirectories(Path file) {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(parent);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create shard directory " + parent, e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.acme.orders.config;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.MethodMetadata;
+
+import java.util.List;
+
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Marks beans declared in {@code orders.startup.lazy-packages} (springdoc by default in the
+     * "fast" profile) as lazy so they are built on first use instead of during context refresh.
+     * Unlike spring.main.lazy-initialization this leaves the request path (DataSource,
+     * repositories, controllers) eager, so the first request doesn't pay for it.
+     */
+    @Bean
+    public static BeanFactoryPostProcessor lazyPackagesPostProcessor(Environment environment) {
+        List<String> lazyPackages = List.of(environment.getProperty("orders.startup.lazy-packages", String[].class, new String[0]));
+        return beanFactory -> {
+            if (lazyPackages.isEmpty()) {
+                return;
+            }
+            for (String beanName : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+                String declaringClass = declaringClassName(definition);
+                if (declaringClass != null && lazyPackages.stream().anyMatch(declaringClass::startsWith)) {
+                    definition.setLazyInit(true);
+                }
+            }
+        };
+    }
+
+    private static String declaringClassName(BeanDefinition definition) {
+        if (definition instanceof AnnotatedBeanDefinition annotated) {
+            MethodMetadata factoryMethod = annotated.getFactoryMethodMetadata();
+            if (factoryMethod != null) {
+                return factoryMethod.getDeclaringClassName();
+            }
+        }
+        return definition.getBeanClassName();
+    }
+}
@@ -0,0 +1,100 @@
+package com.acme.orders.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Optional;
+
+/**
+ * Runs schema.sql only when the database's PRAGMA user_version is behind
+ * {@code orders.schema.version}, then stamps the new version. Bump the property
+ * whenever schema.sql changes.
+ *
+ * <p>schema.sql always describes the latest schema and only uses IF NOT EXISTS, so it
+ * cannot change tables that already exist. For those changes add
+ * {@code db/migration/V<n>.sql}; it is applied to existing databases moving past
+ * version n-1, before schema.sql runs. Fresh databases get schema.sql alone.
+ * Both run only when Boot's own initializer would run schema.sql: {@code always}, or
+ * {@code embedded} on an embedded database, which a SQLite file is not.
+ */
+public class VersionedSchemaInitializer extends SqlDataSourceScriptDatabaseInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(VersionedSchemaInitializer.class);
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseInitializationMode mode;
+    private final int schemaVersion;
+    private final TransactionTemplate transactionTemplate;
+
+    public VersionedSchemaInitializer(DataSource dataSource, SqlInitializationProperties properties, int schemaVersion) {
+        super(dataSource, properties);
+        this.dataSource = dataSource;
+        this.mode = properties.getMode();
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.schemaVersion = schemaVersion;
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Override
+    public boolean initializeDatabase() {
+        // The parent's enablement test; it would only gate schema.sql, not the migrations
+        if (!(mode == DatabaseInitializationMode.ALWAYS
+                || (mode == DatabaseInitializationMode.EMBEDDED && isEmbeddedDatabase()))) {
+            return false;
+        }
+        Integer currentVersion = jdbcTemplate.queryForObject("PRAGMA user_version", Integer.class);
+        int fromVersion = currentVersion != null ? currentVersion : 0;
+        if (fromVersion >= schemaVersion) {
+            logger.info("Schema version {} is current, skipping schema initialization", fromVersion);
+            return false;
+        }
+
+        Integer existingTables = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = 'orders'", Integer.class);
+        boolean existing = existingTables != null && existingTables > 0;
+
+        // Each step commits together with its user_version stamp, so a failed boot resumes
+        // after the last step that completed rather than replaying a migration. The last
+        // migration shares a step with schema.sql so the final version is never stamped early.
+        if (existing) {
+            for (int version = fromVersion + 1; version < schemaVersion; version++) {
+                int stamp = version;
+                migration(version).ifPresent(script -> transactionTemplate.executeWithoutResult(tx -> {
+                    apply(script);
+                    jdbcTemplate.execute("PRAGMA user_version = " + stamp);
+                }));
+            }
+        }
+        Boolean initialized = transactionTemplate.execute(tx -> {
+            if (existing) {
+                migration(schemaVersion).ifPresent(this::apply);
+            }
+            boolean ran = super.initializeDatabase();
+            jdbcTemplate.execute("PRAGMA user_version = " + schemaVersion);
+            return ran;
+        });
+        logger.info("Schema initialized from version {} to {}", fromVersion, schemaVersion);
+        return Boolean.TRUE.equals(initialized);
+    }
+
+    private static Optional<ClassPathResource> migration(int version) {
+        ClassPathResource migration = new ClassPathResource("db/migration/V" + version + ".sql");
+        return migration.exists() ? Optional.of(migration) : Optional.empty();
+    }
+
+    // Joins the surrounding transaction: the populator takes its connection from DataSourceUtils
+    private void apply(ClassPathResource migration) {
+        logger.info("Applying schema migration {}", migration.getPath());
+        new ResourceDatabasePopulator(migration).execute(dataSource);
+    }
+}
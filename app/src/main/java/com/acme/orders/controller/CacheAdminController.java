@@ -0,0 +1,38 @@
+package com.acme.orders.controller;
+
+import com.acme.orders.cache.OrderResponseCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+public class CacheAdminController {
+
+    private final OrderResponseCache responseCache;
+
+    public CacheAdminController(OrderResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", responseCache.getEntryCount());
+        stats.put("bytes", responseCache.getCurrentBytes());
+        stats.put("maxBytes", responseCache.getMaxBytes());
+        stats.put("offHeap", responseCache.isOffHeap());
+        stats.put("hits", responseCache.getHits());
+        stats.put("misses", responseCache.getMisses());
+        stats.put("evictions", responseCache.getEvictions());
+        return ResponseEntity.ok(stats);
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> clear() {
+        responseCache.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.acme.orders.controller;
+
+import com.acme.orders.columnar.OrderColumnLoader;
+import com.acme.orders.columnar.OrderColumnStore;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/columnar")
+public class ColumnarAdminController {
+
+    private final OrderColumnStore columnStore;
+    private final OrderColumnLoader columnLoader;
+
+    public ColumnarAdminController(OrderColumnStore columnStore, OrderColumnLoader columnLoader) {
+        this.columnStore = columnStore;
+        this.columnLoader = columnLoader;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", columnStore.isEnabled());
+        stats.put("ready", columnStore.isReady());
+        stats.put("loading", columnStore.isLoading());
+        stats.put("rows", columnStore.getRowCount());
+        stats.put("tombstones", columnStore.getTombstoneCount());
+        stats.put("statuses", columnStore.getStatusDictionary());
+        return ResponseEntity.ok(stats);
+    }
+
+    // Rebuilds the snapshot in the background; also compacts away deleted rows
+    @PostMapping("/reload")
+    public ResponseEntity<Void> reload() {
+        if (!columnStore.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return columnLoader.reloadAsync()
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+}
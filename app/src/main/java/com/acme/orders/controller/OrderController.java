@@ -1,20 +1,30 @@
 package com.acme.orders.controller;
 
+import com.acme.orders.cache.EncodedResponse;
 import com.acme.orders.model.Order;
 import com.acme.orders.service.IOrderService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderController.class);
+
+    // Parsed from an If-Match tag that is not a version number, so it can never match
+    private static final long UNMATCHABLE_VERSION = -1;
     
     private final IOrderService orderService;
 
@@ -35,7 +45,7 @@ public class OrderController {
     public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
         long startTime = System.currentTimeMillis();
         ResponseEntity<Order> response = orderService.getOrderById(id)
-                .map(ResponseEntity::ok)
+                .map(OrderController::okWithETag)
                 .orElse(ResponseEntity.notFound().build());
         long duration = System.currentTimeMillis() - startTime;
         logger.info("GET /api/orders/{} completed in {}ms", id, duration);
@@ -46,7 +56,7 @@ public class OrderController {
     public ResponseEntity<Order> getOrderByNumber(@PathVariable String orderNumber) {
         long startTime = System.currentTimeMillis();
         ResponseEntity<Order> response = orderService.getOrderByOrderNumber(orderNumber)
-                .map(ResponseEntity::ok)
+                .map(OrderController::okWithETag)
                 .orElse(ResponseEntity.notFound().build());
         long duration = System.currentTimeMillis() - startTime;
         logger.info("GET /api/orders/number/{} completed in {}ms", orderNumber, duration);
@@ -54,11 +64,19 @@ public class OrderController {
     }
 
     @GetMapping("/number/{orderNumber}/details")
-    public ResponseEntity<Order> getOrderDetailsByNumber(@PathVariable String orderNumber) {
+    public void getOrderDetailsByNumber(@PathVariable String orderNumber, HttpServletResponse response)
+            throws IOException {
         long startTime = System.currentTimeMillis();
-        ResponseEntity<Order> response = orderService.getOrderWithItemsByOrderNumber(orderNumber)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        Optional<EncodedResponse> document = orderService.getOrderDetailsDocument(orderNumber);
+        if (document.isPresent()) {
+            // Pre-encoded JSON goes straight to the servlet stream, bypassing message conversion
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(document.get().size());
+            document.get().writeTo(response.getOutputStream());
+        } else {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        }
         long duration = System.currentTimeMillis() - startTime;
         
         if (duration > 100) {
@@ -66,7 +84,6 @@ public class OrderController {
         } else {
             logger.info("GET /api/orders/number/{}/details completed in {}ms", orderNumber, duration);
         }
-        return response;
     }
 
     @PostMapping
@@ -79,10 +96,11 @@ public class OrderController {
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Order> updateOrder(@PathVariable Long id, @RequestBody Order order) {
+    public ResponseEntity<Order> updateOrder(@PathVariable Long id, @RequestBody Order order,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         long startTime = System.currentTimeMillis();
-        ResponseEntity<Order> response = orderService.updateOrder(id, order)
-                .map(ResponseEntity::ok)
+        ResponseEntity<Order> response = orderService.updateOrder(id, order, expectedVersion(ifMatch))
+                .map(OrderController::okWithETag)
                 .orElse(ResponseEntity.notFound().build());
         long duration = System.currentTimeMillis() - startTime;
         logger.info("PUT /api/orders/{} completed in {}ms", id, duration);
@@ -90,9 +108,10 @@ public class OrderController {
     }
 
     @PutMapping("/number/{orderNumber}")
-    public ResponseEntity<Void> updateOrderByNumber(@PathVariable String orderNumber, @RequestBody Order order) {
+    public ResponseEntity<Void> updateOrderByNumber(@PathVariable String orderNumber, @RequestBody Order order,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         long startTime = System.currentTimeMillis();
-        boolean updated = orderService.updateOrderByOrderNumber(orderNumber, order);
+        List<Order> updated = orderService.updateOrderByOrderNumber(orderNumber, order, expectedVersion(ifMatch));
         long duration = System.currentTimeMillis() - startTime;
         
         if (duration > 500) {
@@ -101,11 +120,14 @@ public class OrderController {
             logger.info("PUT /api/orders/number/{} completed in {}ms", orderNumber, duration);
         }
         
-        if (updated) {
-            return ResponseEntity.ok().build();
-        } else {
+        if (updated.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (updated.size() == 1 && updated.get(0).getVersion() != null) {
+            ok.eTag(String.valueOf(updated.get(0).getVersion()));
+        }
+        return ok.build();
     }
 
     @DeleteMapping("/{id}")
@@ -132,4 +154,34 @@ public class OrderController {
                     limit, duration, orders.size());
         return ResponseEntity.ok(orders);
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Void> handleVersionConflict(OptimisticLockingFailureException e) {
+        logger.info("Update rejected: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    private static ResponseEntity<Order> okWithETag(Order order) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (order.getVersion() != null) {
+            ok.eTag(String.valueOf(order.getVersion()));
+        }
+        return ok.body(order);
+    }
+
+    // Accepts 3, "3" and W/"3"; absent or * means an unconditional update
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.parseLong(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            return UNMATCHABLE_VERSION;
+        }
+    }
 }
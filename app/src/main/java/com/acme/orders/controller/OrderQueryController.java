@@ -0,0 +1,66 @@
+package com.acme.orders.controller;
+
+import com.acme.orders.columnar.ColumnarQuery;
+import com.acme.orders.columnar.ColumnarQueryResult;
+import com.acme.orders.columnar.OrderColumnStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/orders/query")
+public class OrderQueryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderQueryController.class);
+
+    private final OrderColumnStore columnStore;
+
+    public OrderQueryController(OrderColumnStore columnStore) {
+        this.columnStore = columnStore;
+    }
+
+    @GetMapping
+    public ResponseEntity<ColumnarQueryResult> query(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAfter,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore,
+            @RequestParam(required = false) Integer sinceDays,
+            @RequestParam(defaultValue = "amount") String sort,
+            @RequestParam(defaultValue = "desc") String order,
+            @RequestParam(defaultValue = "100") int limit) {
+        if (!columnStore.isEnabled() || !columnStore.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        ColumnarQuery query = new ColumnarQuery();
+        query.setStatus(status);
+        query.setMinAmount(minAmount);
+        query.setMaxAmount(maxAmount);
+        query.setCreatedAfter(sinceDays != null ? LocalDateTime.now().minusDays(sinceDays) : createdAfter);
+        query.setCreatedBefore(createdBefore);
+        query.setLimit(limit);
+        switch (sort) {
+            case "amount" -> query.setSortBy(ColumnarQuery.SortField.AMOUNT);
+            case "createdAt" -> query.setSortBy(ColumnarQuery.SortField.CREATED_AT);
+            default -> {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        query.setDescending(!"asc".equalsIgnoreCase(order));
+
+        long startTime = System.currentTimeMillis();
+        ColumnarQueryResult result = columnStore.query(query);
+        long duration = System.currentTimeMillis() - startTime;
+        logger.info("GET /api/orders/query completed in {}ms, scanned {} rows, matched {}",
+                    duration, result.getScanned(), result.getMatched());
+        return ResponseEntity.ok(result);
+    }
+}
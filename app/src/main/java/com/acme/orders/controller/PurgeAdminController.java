@@ -0,0 +1,70 @@
+package com.acme.orders.controller;
+
+import com.acme.orders.model.PurgeJob;
+import com.acme.orders.service.OrderPurgeService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/purge")
+public class PurgeAdminController {
+
+    private final OrderPurgeService purgeService;
+
+    public PurgeAdminController(OrderPurgeService purgeService) {
+        this.purgeService = purgeService;
+    }
+
+    @PostMapping
+    public ResponseEntity<PurgeJob> startPurge(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Integer olderThanDays,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore,
+            @RequestParam(defaultValue = "500") int batchSize,
+            @RequestParam(defaultValue = "50") long pauseMs) {
+        // Refuse an unbounded purge: a cutoff is always required
+        if (olderThanDays == null && createdBefore == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        LocalDateTime cutoff = olderThanDays != null ? LocalDateTime.now().minusDays(olderThanDays) : createdBefore;
+        PurgeJob job = purgeService.startPurge(status, cutoff, batchSize, pauseMs);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<PurgeJob>> getJobs() {
+        return ResponseEntity.ok(purgeService.getJobs());
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<PurgeJob> getJob(@PathVariable long jobId) {
+        return purgeService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<Void> cancel(@PathVariable long jobId) {
+        return purgeService.cancel(jobId)
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/vacuum")
+    public ResponseEntity<Map<String, Boolean>> getVacuumMode() {
+        return ResponseEntity.ok(Map.of("incremental", purgeService.isIncrementalVacuumEnabled()));
+    }
+
+    // One-off full VACUUM that switches the file to incremental auto_vacuum; blocks writers while it runs
+    @PostMapping("/vacuum")
+    public ResponseEntity<Void> enableIncrementalVacuum() {
+        purgeService.enableIncrementalVacuum();
+        return ResponseEntity.ok().build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.acme.orders.controller;
+
+import com.acme.orders.monitoring.SqlStatementRecorder;
+import com.acme.orders.monitoring.StatementSample;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/sql")
+public class SqlAdminController {
+
+    private final SqlStatementRecorder recorder;
+
+    public SqlAdminController(SqlStatementRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("enabled", recorder.isEnabled());
+        summary.put("slowThresholdMs", recorder.getSlowThresholdMs());
+        summary.put("statementCount", recorder.getStatementCount());
+        summary.put("slowStatementCount", recorder.getSlowStatementCount());
+        summary.put("slowest", recorder.getSlowest());
+        return ResponseEntity.ok(summary);
+    }
+
+    @GetMapping("/slowest")
+    public ResponseEntity<List<StatementSample>> getSlowest() {
+        return ResponseEntity.ok(recorder.getSlowest());
+    }
+
+    @GetMapping("/plans")
+    public ResponseEntity<Map<String, String>> getQueryPlans() {
+        return ResponseEntity.ok(recorder.getQueryPlans());
+    }
+
+    @PutMapping("/enabled")
+    public ResponseEntity<Void> setEnabled(@RequestParam boolean value) {
+        recorder.setEnabled(value);
+        return ResponseEntity.ok().build();
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> reset() {
+        recorder.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
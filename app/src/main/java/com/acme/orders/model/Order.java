@@ -14,6 +14,7 @@ public class Order {
     private String orderMetadata;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
     
     // For order details response (not persisted directly)
     private java.util.List<OrderItem> items;
@@ -85,6 +86,14 @@ public class Order {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getCustomerEmail() {
         return customerEmail;
     }
@@ -127,6 +136,7 @@ public class Order {
                 ", amount=" + amount +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
+                ", version=" + version +
                 '}';
     }
 }
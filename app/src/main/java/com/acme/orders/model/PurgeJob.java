@@ -0,0 +1,141 @@
+package com.acme.orders.model;
+
+import java.time.LocalDateTime;
+
+public class PurgeJob {
+
+    public enum State { RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    private final long id;
+    private final String status;
+    private final LocalDateTime createdBefore;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final LocalDateTime startedAt;
+
+    // Written by the purge thread, read by API callers
+    private volatile State state = State.RUNNING;
+    private volatile long matchedOrders;
+    private volatile long ordersDeleted;
+    private volatile long itemsDeleted;
+    private volatile int batches;
+    private volatile long databaseBytesBefore;
+    private volatile long databaseBytesAfter;
+    private volatile LocalDateTime finishedAt;
+    private volatile String error;
+    private volatile boolean cancelRequested;
+
+    public PurgeJob(long id, String status, LocalDateTime createdBefore, int batchSize, long pauseMillis) {
+        this.id = id;
+        this.status = status;
+        this.createdBefore = createdBefore;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.startedAt = LocalDateTime.now();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedBefore() {
+        return createdBefore;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getPauseMillis() {
+        return pauseMillis;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public long getMatchedOrders() {
+        return matchedOrders;
+    }
+
+    public void setMatchedOrders(long matchedOrders) {
+        this.matchedOrders = matchedOrders;
+    }
+
+    public long getOrdersDeleted() {
+        return ordersDeleted;
+    }
+
+    public long getItemsDeleted() {
+        return itemsDeleted;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    public void recordBatch(int orders, int items) {
+        this.ordersDeleted += orders;
+        this.itemsDeleted += items;
+        this.batches++;
+    }
+
+    public int getPercentComplete() {
+        if (matchedOrders == 0) {
+            return state == State.RUNNING ? 0 : 100;
+        }
+        return (int) Math.min(100, ordersDeleted * 100 / matchedOrders);
+    }
+
+    public long getDatabaseBytesBefore() {
+        return databaseBytesBefore;
+    }
+
+    public void setDatabaseBytesBefore(long databaseBytesBefore) {
+        this.databaseBytesBefore = databaseBytesBefore;
+    }
+
+    public long getDatabaseBytesAfter() {
+        return databaseBytesAfter;
+    }
+
+    public void setDatabaseBytesAfter(long databaseBytesAfter) {
+        this.databaseBytesAfter = databaseBytesAfter;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public void requestCancel() {
+        this.cancelRequested = true;
+    }
+}
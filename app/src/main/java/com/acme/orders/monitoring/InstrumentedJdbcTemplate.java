@@ -0,0 +1,120 @@
+package com.acme.orders.monitoring;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.SqlProvider;
+import org.springframework.lang.Nullable;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.StringJoiner;
+
+/**
+ * JdbcTemplate that reports statement text, bind count, duration and row count
+ * to a {@link SqlStatementRecorder}. All of the String/varargs convenience methods
+ * funnel into the overridden core methods, so repositories need no changes.
+ * When the recorder is disabled each call costs a single volatile read.
+ */
+public class InstrumentedJdbcTemplate extends JdbcTemplate {
+
+    private static final String EXPLAIN_PREFIX = "EXPLAIN QUERY PLAN ";
+
+    private final SqlStatementRecorder recorder;
+
+    public InstrumentedJdbcTemplate(DataSource dataSource, SqlStatementRecorder recorder) {
+        super(dataSource);
+        this.recorder = recorder;
+    }
+
+    @Override
+    protected PreparedStatementSetter newArgPreparedStatementSetter(@Nullable Object[] args) {
+        return new CountingArgumentSetter(args);
+    }
+
+    @Override
+    public <T> T query(PreparedStatementCreator psc, @Nullable PreparedStatementSetter pss,
+                       ResultSetExtractor<T> rse) throws DataAccessException {
+        if (!recorder.isEnabled()) {
+            return super.query(psc, pss, rse);
+        }
+        long start = System.nanoTime();
+        T result = super.query(psc, pss, rse);
+        recorder.record(sqlOf(psc), bindCount(pss), System.nanoTime() - start, rowCount(result), this::explain);
+        return result;
+    }
+
+    @Override
+    public <T> T query(String sql, ResultSetExtractor<T> rse) throws DataAccessException {
+        if (!recorder.isEnabled()) {
+            return super.query(sql, rse);
+        }
+        long start = System.nanoTime();
+        T result = super.query(sql, rse);
+        recorder.record(sql, 0, System.nanoTime() - start, rowCount(result), this::explain);
+        return result;
+    }
+
+    @Override
+    protected int update(PreparedStatementCreator psc, @Nullable PreparedStatementSetter pss)
+            throws DataAccessException {
+        if (!recorder.isEnabled()) {
+            return super.update(psc, pss);
+        }
+        long start = System.nanoTime();
+        int rows = super.update(psc, pss);
+        recorder.record(sqlOf(psc), bindCount(pss), System.nanoTime() - start, rows, this::explain);
+        return rows;
+    }
+
+    @Override
+    public int update(String sql) throws DataAccessException {
+        if (!recorder.isEnabled()) {
+            return super.update(sql);
+        }
+        long start = System.nanoTime();
+        int rows = super.update(sql);
+        recorder.record(sql, 0, System.nanoTime() - start, rows, this::explain);
+        return rows;
+    }
+
+    // Runs unbound: SQLite treats missing parameters as NULL, which does not change the chosen plan
+    private String explain(String sql) {
+        PreparedStatementCreator psc = con -> con.prepareStatement(EXPLAIN_PREFIX + sql);
+        ResultSetExtractor<String> planExtractor = rs -> {
+            StringJoiner plan = new StringJoiner("\n");
+            while (rs.next()) {
+                plan.add(rs.getString("detail"));
+            }
+            return plan.toString();
+        };
+        return super.query(psc, null, planExtractor);
+    }
+
+    private static String sqlOf(PreparedStatementCreator psc) {
+        return psc instanceof SqlProvider provider ? provider.getSql() : psc.toString();
+    }
+
+    private static int bindCount(@Nullable PreparedStatementSetter pss) {
+        return pss instanceof CountingArgumentSetter setter ? setter.bindCount : 0;
+    }
+
+    private static long rowCount(@Nullable Object result) {
+        if (result instanceof Collection<?> rows) {
+            return rows.size();
+        }
+        return result == null ? 0 : 1;
+    }
+
+    private static final class CountingArgumentSetter extends ArgumentPreparedStatementSetter {
+        private final int bindCount;
+
+        CountingArgumentSetter(@Nullable Object[] args) {
+            super(args);
+            this.bindCount = args != null ? args.length : 0;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.acme.orders.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Collects timings for every statement run through {@link InstrumentedJdbcTemplate}.
+ * Keeps the N slowest statements seen since the last reset and caches the
+ * EXPLAIN QUERY PLAN output for each distinct SQL string that crossed the slow threshold.
+ */
+@Component
+public class SqlStatementRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementRecorder.class);
+
+    private volatile boolean enabled;
+    private final long slowThresholdNanos;
+    private final int topN;
+
+    // Min-heap on duration so the fastest of the retained samples is evicted first
+    private final PriorityQueue<StatementSample> slowest =
+            new PriorityQueue<>(Comparator.comparingLong(StatementSample::getDurationMicros));
+    private volatile long admissionFloorMicros = 0;
+
+    private final Map<String, String> queryPlans = new ConcurrentHashMap<>();
+    private final LongAdder statementCount = new LongAdder();
+    private final LongAdder slowStatementCount = new LongAdder();
+
+    public SqlStatementRecorder(
+            @Value("${orders.sql-recorder.enabled:false}") boolean enabled,
+            @Value("${orders.sql-recorder.slow-threshold-ms:50}") long slowThresholdMs,
+            @Value("${orders.sql-recorder.top-n:20}") int topN) {
+        this.enabled = enabled;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.topN = Math.max(1, topN);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getSlowThresholdMs() {
+        return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+    }
+
+    public long getStatementCount() {
+        return statementCount.sum();
+    }
+
+    public long getSlowStatementCount() {
+        return slowStatementCount.sum();
+    }
+
+    public void record(String sql, int bindCount, long durationNanos, long rows,
+                       Function<String, String> planner) {
+        statementCount.increment();
+        long durationMicros = TimeUnit.NANOSECONDS.toMicros(durationNanos);
+
+        String plan = null;
+        if (durationNanos >= slowThresholdNanos) {
+            slowStatementCount.increment();
+            // Not computeIfAbsent: the EXPLAIN round trip would run under the map's bin lock
+            plan = queryPlans.get(sql);
+            if (plan == null) {
+                String explained = explain(sql, planner);
+                String raced = queryPlans.putIfAbsent(sql, explained);
+                plan = raced != null ? raced : explained;
+            }
+            logger.warn("Slow SQL ({}ms, {} binds, {} rows): {}",
+                    TimeUnit.NANOSECONDS.toMillis(durationNanos), bindCount, rows, sql);
+        }
+
+        // Cheap unlocked check so the common fast statement never touches the heap lock
+        if (durationMicros <= admissionFloorMicros) {
+            return;
+        }
+
+        StatementSample sample = new StatementSample(sql, bindCount, durationMicros, rows, plan, LocalDateTime.now());
+        synchronized (slowest) {
+            slowest.offer(sample);
+            if (slowest.size() > topN) {
+                slowest.poll();
+            }
+            if (slowest.size() == topN) {
+                admissionFloorMicros = slowest.peek().getDurationMicros();
+            }
+        }
+    }
+
+    public List<StatementSample> getSlowest() {
+        List<StatementSample> samples;
+        synchronized (slowest) {
+            samples = new ArrayList<>(slowest);
+        }
+        samples.sort(Comparator.comparingLong(StatementSample::getDurationMicros).reversed());
+        return samples;
+    }
+
+    public Map<String, String> getQueryPlans() {
+        return new TreeMap<>(queryPlans);
+    }
+
+    public void reset() {
+        synchronized (slowest) {
+            slowest.clear();
+            admissionFloorMicros = 0;
+        }
+        queryPlans.clear();
+        statementCount.reset();
+        slowStatementCount.reset();
+    }
+
+    private String explain(String sql, Function<String, String> planner) {
+        try {
+            return planner.apply(sql);
+        } catch (RuntimeException e) {
+            logger.debug("EXPLAIN QUERY PLAN failed for {}", sql, e);
+            return "unavailable: " + e.getMessage();
+        }
+    }
+}
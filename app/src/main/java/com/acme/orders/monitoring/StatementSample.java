@@ -0,0 +1,47 @@
+package com.acme.orders.monitoring;
+
+import java.time.LocalDateTime;
+
+public class StatementSample {
+    private final String sql;
+    private final int bindCount;
+    private final long durationMicros;
+    private final long rows;
+    private final String queryPlan;
+    private final LocalDateTime capturedAt;
+
+    public StatementSample(String sql, int bindCount, long durationMicros, long rows,
+                           String queryPlan, LocalDateTime capturedAt) {
+        this.sql = sql;
+        this.bindCount = bindCount;
+        this.durationMicros = durationMicros;
+        this.rows = rows;
+        this.queryPlan = queryPlan;
+        this.capturedAt = capturedAt;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public int getBindCount() {
+        return bindCount;
+    }
+
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    // Only populated for statements over the slow threshold
+    public String getQueryPlan() {
+        return queryPlan;
+    }
+
+    public LocalDateTime getCapturedAt() {
+        return capturedAt;
+    }
+}
@@ -1,20 +1,54 @@
 package com.acme.orders.repository;
 
+import com.acme.orders.columnar.OrderColumnRowHandler;
+import com.acme.orders.columnar.OrderColumnStore;
 import com.acme.orders.model.Order;
 import com.acme.orders.model.OrderItem;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Order storage over one or more SQLite files (see {@link OrderShards}). Operations on a
+ * single order go straight to its shard; lists and counts query every shard in parallel
+ * and merge the results.
+ */
 @Repository
 public class OrderRepository {
 
-    private final JdbcTemplate jdbcTemplate;
+    private static final DateTimeFormatter SQLITE_TEXT_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // created_at holds epoch-millis integers for rows written through JDBC and
+    // 'yyyy-MM-dd HH:mm:ss' text for rows that took the CURRENT_TIMESTAMP default
+    private static final String CREATED_BEFORE_PREDICATE =
+        "((typeof(created_at) = 'integer' AND created_at < ?) OR (typeof(created_at) = 'text' AND created_at < ?))";
+
+    // Applies the change, bumps the version and hands back the new row in one round trip
+    private static final String UPDATE_RETURNING =
+        "UPDATE orders SET customer_name = ?, status = ?, amount = ?, updated_at = ?, version = version + 1 WHERE ";
+
+    // Shard results are merged in the order each shard's SQL returns them
+    private static final Comparator<Order> BY_ID = Comparator.comparing(Order::getId);
+    private static final Comparator<Order> BY_CREATED_AT_DESC =
+        Comparator.comparing(Order::getCreatedAt, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder())).reversed();
+    private static final Comparator<ColumnRow> COLUMN_ROW_BY_ID = Comparator.comparingLong(row -> row.id);
+
+    private final OrderShards shards;
+    private final OrderColumnStore columnStore;
 
     private final RowMapper<Order> orderRowMapper = (rs, rowNum) -> {
         Order order = new Order();
@@ -26,6 +60,7 @@ public class OrderRepository {
         order.setAmount(rs.getBigDecimal("amount"));
         order.setShippingAddress(rs.getString("shipping_address"));
         order.setOrderMetadata(rs.getString("order_metadata"));
+        order.setVersion(rs.getLong("version"));
         
         Timestamp createdAt = rs.getTimestamp("created_at");
         if (createdAt != null) {
@@ -57,27 +92,78 @@ public class OrderRepository {
         return item;
     };
 
-    public OrderRepository(JdbcTemplate jdbcTemplate) {
-        this.jdbcTemplate = jdbcTemplate;
+    public OrderRepository(OrderShards shards, OrderColumnStore columnStore) {
+        this.shards = shards;
+        this.columnStore = columnStore;
+    }
+
+    // Rewrites shard-local row ids to global ids as rows are read
+    private RowMapper<Order> orderRowMapper(OrderShards.Shard shard) {
+        return (rs, rowNum) -> {
+            Order order = orderRowMapper.mapRow(rs, rowNum);
+            order.setId(shards.globalId(shard, order.getId()));
+            return order;
+        };
+    }
+
+    private RowMapper<OrderItem> orderItemRowMapper(OrderShards.Shard shard) {
+        return (rs, rowNum) -> {
+            OrderItem item = orderItemRowMapper.mapRow(rs, rowNum);
+            item.setId(shards.globalId(shard, item.getId()));
+            return item;
+        };
     }
 
     public List<Order> findAll() {
-        return jdbcTemplate.query("SELECT * FROM orders LIMIT 100", orderRowMapper);
+        return findPage(0, 100);
+    }
+
+    /**
+     * Orders by ascending id. Each shard returns its first {@code offset + limit} rows and
+     * the lists are merged, so deep offsets cost every shard the full prefix.
+     */
+    public List<Order> findPage(int offset, int limit) {
+        boolean single = shards.size() == 1;
+        List<List<Order>> pages = shards.scatter(shard -> shard.getJdbcTemplate().query(
+            "SELECT * FROM orders ORDER BY id LIMIT ? OFFSET ?",
+            orderRowMapper(shard),
+            single ? limit : offset + limit,
+            single ? offset : 0
+        ));
+        return OrderShards.mergeSorted(pages, BY_ID, single ? 0 : offset, limit);
     }
 
     public Optional<Order> findById(Long id) {
-        List<Order> results = jdbcTemplate.query(
+        OrderShards.Shard shard = shards.forId(id);
+        List<Order> results = shard.getJdbcTemplate().query(
             "SELECT * FROM orders WHERE id = ?",
-            orderRowMapper,
-            id
+            orderRowMapper(shard),
+            shards.localId(id)
         );
         return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
     }
 
     public Optional<Order> findByOrderNumber(String orderNumber) {
-        List<Order> results = jdbcTemplate.query(
+        OrderShards.Shard shard = shards.forOrderNumber(orderNumber);
+        List<Order> results = shard.getJdbcTemplate().query(
             "SELECT * FROM orders WHERE order_number = ?",
-            orderRowMapper,
+            orderRowMapper(shard),
+            orderNumber
+        );
+        return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
+    }
+
+    // Cheap version probe for the response cache: the returned order only has id and version set
+    public Optional<Order> findVersionByOrderNumber(String orderNumber) {
+        OrderShards.Shard shard = shards.forOrderNumber(orderNumber);
+        List<Order> results = shard.getJdbcTemplate().query(
+            "SELECT id, version FROM orders WHERE order_number = ?",
+            (rs, rowNum) -> {
+                Order order = new Order();
+                order.setId(shards.globalId(shard, rs.getLong("id")));
+                order.setVersion(rs.getLong("version"));
+                return order;
+            },
             orderNumber
         );
         return results.isEmpty() ? Optional.empty() : Optional.of(results.get(0));
@@ -90,14 +176,7 @@ public class OrderRepository {
         }
         
         Order order = orderOpt.get();
-        
-        List<OrderItem> items = jdbcTemplate.query(
-            "SELECT * FROM order_items WHERE order_number = ?",
-            orderItemRowMapper,
-            orderNumber
-        );
-        
-        order.setItems(items);
+        order.setItems(findItemsByOrderNumber(orderNumber));
         return Optional.of(order);
     }
 
@@ -111,10 +190,13 @@ public class OrderRepository {
 
     private Order insert(Order order) {
         LocalDateTime now = LocalDateTime.now();
-        
-        jdbcTemplate.update(
+        OrderShards.Shard shard = shards.forOrderNumber(order.getOrderNumber());
+
+        // RETURNING keeps the generated id on the inserting connection
+        Long localId = shard.getJdbcTemplate().queryForObject(
             "INSERT INTO orders (order_number, customer_name, customer_email, status, amount, shipping_address, order_metadata, created_at, updated_at) " +
-            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) RETURNING id",
+            Long.class,
             order.getOrderNumber(),
             order.getCustomerName(),
             order.getCustomerEmail(),
@@ -126,62 +208,331 @@ public class OrderRepository {
             Timestamp.valueOf(now)
         );
 
-        // Get the last inserted ID for SQLite
-        Long id = jdbcTemplate.queryForObject("SELECT last_insert_rowid()", Long.class);
+        long id = shards.globalId(shard, localId);
         order.setId(id);
         order.setCreatedAt(now);
         order.setUpdatedAt(now);
+        order.setVersion(0L);
+        columnStore.onInsert(id, order.getStatus(), order.getAmount(), now);
         return order;
     }
 
     private Order update(Order order) {
-        LocalDateTime now = LocalDateTime.now();
-        jdbcTemplate.update(
-            "UPDATE orders SET customer_name = ?, status = ?, amount = ?, updated_at = ? WHERE id = ?",
-            order.getCustomerName(),
-            order.getStatus(),
-            order.getAmount(),
-            Timestamp.valueOf(now),
-            order.getId()
-        );
-        order.setUpdatedAt(now);
-        return order;
+        return updateById(order.getId(), order, null).orElse(order);
     }
 
-    public int updateByOrderNumber(String orderNumber, Order order) {
-        LocalDateTime now = LocalDateTime.now();
-        return jdbcTemplate.update(
-            "UPDATE orders SET customer_name = ?, status = ?, amount = ?, updated_at = ? WHERE order_number = ?",
-            order.getCustomerName(),
-            order.getStatus(),
-            order.getAmount(),
-            Timestamp.valueOf(now),
-            orderNumber
-        );
+    /**
+     * Updates customer name, status and amount. When {@code expectedVersion} is set the update
+     * only applies if the row is still at that version, and an existing row at another version
+     * raises {@link OptimisticLockingFailureException}.
+     */
+    public Optional<Order> updateById(Long id, Order changes, Long expectedVersion) {
+        OrderShards.Shard shard = shards.forId(id);
+        long localId = shards.localId(id);
+        List<Order> updated = updateReturning(shard, "id = ?", localId, changes, expectedVersion);
+        if (updated.isEmpty()) {
+            // Only the failure path pays for a second statement
+            if (expectedVersion != null && existsBy(shard, "id = ?", localId)) {
+                throw versionConflict("id " + id, expectedVersion);
+            }
+            return Optional.empty();
+        }
+        return Optional.of(updated.get(0));
+    }
+
+    public List<Order> updateByOrderNumber(String orderNumber, Order changes, Long expectedVersion) {
+        OrderShards.Shard shard = shards.forOrderNumber(orderNumber);
+        List<Order> updated = updateReturning(shard, "order_number = ?", orderNumber, changes, expectedVersion);
+        if (updated.isEmpty() && expectedVersion != null && existsBy(shard, "order_number = ?", orderNumber)) {
+            throw versionConflict(orderNumber, expectedVersion);
+        }
+        return updated;
+    }
+
+    private List<Order> updateReturning(OrderShards.Shard shard, String keyPredicate, Object key, Order changes, Long expectedVersion) {
+        List<Object> args = new ArrayList<>();
+        args.add(changes.getCustomerName());
+        args.add(changes.getStatus());
+        args.add(changes.getAmount());
+        args.add(Timestamp.valueOf(LocalDateTime.now()));
+        args.add(key);
+
+        String sql = UPDATE_RETURNING + keyPredicate;
+        if (expectedVersion != null) {
+            sql += " AND version = ?";
+            args.add(expectedVersion);
+        }
+
+        List<Order> updated = shard.getJdbcTemplate().query(sql + " RETURNING *", orderRowMapper(shard), args.toArray());
+        for (Order order : updated) {
+            columnStore.onUpdate(order.getId(), order.getVersion(), order.getStatus(), order.getAmount(), order.getCreatedAt());
+        }
+        return updated;
+    }
+
+    private boolean existsBy(OrderShards.Shard shard, String keyPredicate, Object key) {
+        return !shard.getJdbcTemplate().queryForList("SELECT 1 FROM orders WHERE " + keyPredicate + " LIMIT 1", Integer.class, key).isEmpty();
+    }
+
+    private static OptimisticLockingFailureException versionConflict(String order, long expectedVersion) {
+        return new OptimisticLockingFailureException(
+            "Order " + order + " is no longer at version " + expectedVersion);
     }
 
     public void deleteById(Long id) {
-        jdbcTemplate.update("DELETE FROM orders WHERE id = ?", id);
+        OrderShards.Shard shard = shards.forId(id);
+        long localId = shards.localId(id);
+        JdbcTemplate jdbcTemplate = shard.getJdbcTemplate();
+        shard.getTransactionTemplate().executeWithoutResult(status -> {
+            jdbcTemplate.update(
+                "DELETE FROM order_items WHERE order_number IN (SELECT order_number FROM orders WHERE id = ?)",
+                localId
+            );
+            jdbcTemplate.update("DELETE FROM orders WHERE id = ?", localId);
+        });
+        columnStore.onDelete(id);
+    }
+
+    public long countPurgeCandidates(String status, LocalDateTime createdBefore) {
+        List<Object> args = new ArrayList<>();
+        String where = purgePredicate(status, createdBefore, args);
+        return sum(shards.scatter(shard -> shard.getJdbcTemplate().queryForObject(
+            "SELECT COUNT(*) FROM orders WHERE " + where, Long.class, args.toArray())));
+    }
+
+    /**
+     * Deletes up to {@code batchSize} matching orders with ids after {@code afterId}, and
+     * their items. Pass 0 first, then the previous batch's {@link PurgeBatch#getLastId()}.
+     * Shards are drained one after another, and an empty batch means nothing is left in any shard.
+     */
+    public PurgeBatch purgeBatch(String status, LocalDateTime createdBefore, int batchSize, long afterId) {
+        List<Object> args = new ArrayList<>();
+        String where = purgePredicate(status, createdBefore, args);
+
+        // Global id 0 is never assigned (local ids start at 1), so it means shard 0 from the start
+        // Pinned: left to the planner, idx_orders_status_created_at wins and every batch sorts
+        // all remaining candidates. (status, rowid) and the rowid are already in id order.
+        String from = status != null ? "orders INDEXED BY idx_orders_status" : "orders NOT INDEXED";
+        int fromShard = shards.forId(afterId).getIndex();
+        long afterLocalId = shards.localId(afterId);
+        for (OrderShards.Shard shard : shards.all().subList(fromShard, shards.size())) {
+            long lastLocalId = shard.getIndex() == fromShard ? afterLocalId : 0;
+            while (true) {
+                List<Long> candidates = new ArrayList<>();
+                List<String> candidateNumbers = new ArrayList<>();
+                // Read outside the delete transaction, so it never holds up the write lock
+                List<Object> selectArgs = new ArrayList<>(args);
+                selectArgs.add(lastLocalId);
+                selectArgs.add(batchSize);
+                shard.getJdbcTemplate().query(
+                    "SELECT id, order_number FROM " + from + " WHERE " + where + " AND id > ? ORDER BY id LIMIT ?",
+                    rs -> {
+                        candidates.add(rs.getLong("id"));
+                        candidateNumbers.add(rs.getString("order_number"));
+                    },
+                    selectArgs.toArray()
+                );
+                if (candidates.isEmpty()) {
+                    break;
+                }
+                lastLocalId = candidates.get(candidates.size() - 1);
+
+                PurgeBatch batch = deleteCandidates(shard, where, args, candidates, shards.globalId(shard, lastLocalId));
+                if (!batch.isEmpty()) {
+                    for (Long id : batch.getOrderIds()) {
+                        columnStore.onDelete(id);
+                    }
+                    return batch;
+                }
+                // Every candidate changed since it was read; carry on after them
+            }
+        }
+        return new PurgeBatch(List.of(), List.of(), 0, afterId);
+    }
+
+    // Starts with the DELETE so the transaction asks for the write lock straight away: a read
+    // first would hold SHARED, and upgrading that fails with SQLITE_BUSY without waiting
+    // whenever another connection already holds RESERVED
+    private PurgeBatch deleteCandidates(OrderShards.Shard shard, String where, List<Object> predicateArgs,
+                                        List<Long> candidates, long lastId) {
+        JdbcTemplate jdbcTemplate = shard.getJdbcTemplate();
+        return shard.getTransactionTemplate().execute(tx -> {
+            List<Object> args = new ArrayList<>(candidates);
+            args.addAll(predicateArgs);
+            List<Long> ids = new ArrayList<>();
+            List<String> orderNumbers = new ArrayList<>();
+            // The predicate is checked again since a row may have changed after it was selected.
+            // NOT INDEXED keeps the planner on the rowid instead of scanning the status index.
+            jdbcTemplate.query(
+                "DELETE FROM orders NOT INDEXED WHERE id IN (" + placeholders(candidates.size()) + ") AND " + where +
+                " RETURNING id, order_number",
+                rs -> {
+                    ids.add(rs.getLong("id"));
+                    orderNumbers.add(rs.getString("order_number"));
+                },
+                args.toArray()
+            );
+            if (ids.isEmpty()) {
+                return new PurgeBatch(List.of(), List.of(), 0, lastId);
+            }
+
+            int itemsDeleted = jdbcTemplate.update(
+                "DELETE FROM order_items WHERE order_number IN (" + placeholders(orderNumbers.size()) + ")",
+                orderNumbers.toArray()
+            );
+            List<Long> globalIds = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                globalIds.add(shards.globalId(shard, id));
+            }
+            return new PurgeBatch(globalIds, orderNumbers, itemsDeleted, lastId);
+        });
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private String purgePredicate(String status, LocalDateTime createdBefore, List<Object> args) {
+        args.add(Timestamp.valueOf(createdBefore).getTime());
+        args.add(createdBefore.format(SQLITE_TEXT_TIMESTAMP));
+        if (status == null) {
+            return CREATED_BEFORE_PREDICATE;
+        }
+        args.add(0, status);
+        return "status = ? AND " + CREATED_BEFORE_PREDICATE;
+    }
+
+    // True only when every shard has it
+    public boolean isIncrementalVacuumEnabled() {
+        for (OrderShards.Shard shard : shards.all()) {
+            Integer mode = shard.getJdbcTemplate().queryForObject("PRAGMA auto_vacuum", Integer.class);
+            if (mode == null || mode != 2) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Switches the database to auto_vacuum=INCREMENTAL. The mode only takes effect after a
+     * full VACUUM, which rewrites the file under an exclusive lock, so this is a one-off.
+     * Both statements must run on the same connection. Shards are rewritten in parallel.
+     */
+    public void enableIncrementalVacuum() {
+        shards.scatter(shard -> shard.getJdbcTemplate().execute((ConnectionCallback<Void>) con -> {
+            try (Statement statement = con.createStatement()) {
+                statement.execute("PRAGMA auto_vacuum = INCREMENTAL");
+                statement.execute("VACUUM");
+            }
+            return null;
+        }));
+    }
+
+    /**
+     * Returns free pages to the filesystem; 0 means no limit, otherwise the limit applies per
+     * shard. Returns the number of pages freed.
+     */
+    public long incrementalVacuum(int maxPages) {
+        String sql = maxPages > 0 ? "PRAGMA incremental_vacuum(" + maxPages + ")" : "PRAGMA incremental_vacuum";
+        return sum(shards.scatter(shard -> shard.getJdbcTemplate().execute((ConnectionCallback<Long>) con -> {
+            try (Statement statement = con.createStatement()) {
+                long before = freelistCount(statement);
+                // The pragma frees one page per step: executeUpdate runs it to completion,
+                // while execute() and JdbcTemplate.execute stop after the first page
+                statement.executeUpdate(sql);
+                return before - freelistCount(statement);
+            }
+        })));
+    }
+
+    private static long freelistCount(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("PRAGMA freelist_count")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    public long databaseSizeBytes() {
+        return sum(shards.scatter(shard -> {
+            Long pageCount = shard.getJdbcTemplate().queryForObject("PRAGMA page_count", Long.class);
+            Long pageSize = shard.getJdbcTemplate().queryForObject("PRAGMA page_size", Long.class);
+            return pageCount != null && pageSize != null ? pageCount * pageSize : 0L;
+        }));
     }
 
     public long count() {
-        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Long.class);
-        return count != null ? count : 0;
+        return sum(shards.scatter(shard ->
+            shard.getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM orders", Long.class)));
     }
 
     public List<Order> findRecentOrders(int limit) {
-        return jdbcTemplate.query(
+        List<List<Order>> recent = shards.scatter(shard -> shard.getJdbcTemplate().query(
             "SELECT * FROM orders ORDER BY created_at DESC LIMIT ?",
-            orderRowMapper,
+            orderRowMapper(shard),
             limit
-        );
+        ));
+        return OrderShards.mergeSorted(recent, BY_CREATED_AT_DESC, 0, limit);
     }
 
     public List<OrderItem> findItemsByOrderNumber(String orderNumber) {
-        return jdbcTemplate.query(
+        OrderShards.Shard shard = shards.forOrderNumber(orderNumber);
+        return shard.getJdbcTemplate().query(
             "SELECT * FROM order_items WHERE order_number = ?",
-            orderItemRowMapper,
+            orderItemRowMapper(shard),
             orderNumber
         );
     }
+
+    /**
+     * Streams id, version, status, amount and created_at of every order to {@code handler} in
+     * ascending global id order. Reads go by windows of {@code windowSize} shard-local ids,
+     * all shards in parallel. Global ids of one window all sort before those of the next, so
+     * only one window per shard is held in memory.
+     */
+    public void scanOrderColumns(int windowSize, OrderColumnRowHandler handler) {
+        long maxLocalId = 0;
+        for (Long shardMax : shards.scatter(shard ->
+                shard.getJdbcTemplate().queryForObject("SELECT COALESCE(MAX(id), 0) FROM orders", Long.class))) {
+            maxLocalId = Math.max(maxLocalId, shardMax != null ? shardMax : 0);
+        }
+
+        for (long from = 0; from < maxLocalId; from += windowSize) {
+            long windowStart = from;
+            List<List<ColumnRow>> windows = shards.scatter(shard -> shard.getJdbcTemplate().query(
+                "SELECT id, version, status, amount, created_at FROM orders WHERE id > ? AND id <= ? ORDER BY id",
+                (rs, rowNum) -> {
+                    ColumnRow row = new ColumnRow();
+                    row.id = shards.globalId(shard, rs.getLong("id"));
+                    row.version = rs.getLong("version");
+                    row.status = rs.getString("status");
+                    row.amount = rs.getDouble("amount");
+                    row.amountNull = rs.wasNull();
+                    Timestamp createdAt = rs.getTimestamp("created_at");
+                    row.createdAtMillis = createdAt != null ? createdAt.getTime() : 0;
+                    return row;
+                },
+                windowStart,
+                windowStart + windowSize
+            ));
+            for (ColumnRow row : OrderShards.mergeSorted(windows, COLUMN_ROW_BY_ID, 0, Integer.MAX_VALUE)) {
+                handler.accept(row.id, row.version, row.status, row.amount, row.amountNull, row.createdAtMillis);
+            }
+        }
+    }
+
+    private static final class ColumnRow {
+        long id;
+        long version;
+        String status;
+        double amount;
+        boolean amountNull;
+        long createdAtMillis;
+    }
+
+    private static long sum(List<Long> counts) {
+        long total = 0;
+        for (Long count : counts) {
+            total += count != null ? count : 0;
+        }
+        return total;
+    }
 }
@@ -0,0 +1,212 @@
+package com.acme.orders.repository;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The database files behind {@link OrderRepository}. An order and its items live in the
+ * shard picked by hashing the order number. Each shard has its own connection pool and
+ * write lock, so writes to different shards do not block each other.
+ *
+ * <p>Row ids are autoincrement within a shard. Outside the repository they are exposed as
+ * {@code localId * shardCount + shardIndex}, so an id alone routes to its shard. With a
+ * single shard both ids are the same.
+ */
+public class OrderShards implements DisposableBean {
+
+    public static final class Shard {
+        private final int index;
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate transactionTemplate;
+
+        public Shard(int index, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+            this.index = index;
+            this.jdbcTemplate = jdbcTemplate;
+            this.transactionTemplate = transactionTemplate;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public JdbcTemplate getJdbcTemplate() {
+            return jdbcTemplate;
+        }
+
+        public TransactionTemplate getTransactionTemplate() {
+            return transactionTemplate;
+        }
+    }
+
+    private final List<Shard> shards;
+    private final List<? extends AutoCloseable> resources;
+    private final ExecutorService scatterExecutor;
+
+    /**
+     * @param resources closed with the bean, typically the shard connection pools
+     */
+    public OrderShards(List<Shard> shards, List<? extends AutoCloseable> resources) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = List.copyOf(shards);
+        this.resources = List.copyOf(resources);
+        if (shards.size() > 1) {
+            // Unbounded, so concurrent callers never queue behind each other; their number is
+            // already capped by the request threads, and per shard by its connection pool
+            AtomicInteger threads = new AtomicInteger();
+            this.scatterExecutor = Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "shard-scatter-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.scatterExecutor = null;
+        }
+    }
+
+    public static OrderShards single(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        return new OrderShards(List.of(new Shard(0, jdbcTemplate, transactionTemplate)), List.of());
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public List<Shard> all() {
+        return shards;
+    }
+
+    public Shard forOrderNumber(String orderNumber) {
+        return shards.get(shardIndex(orderNumber, shards.size()));
+    }
+
+    public Shard forId(long id) {
+        return shards.get((int) Math.floorMod(id, (long) shards.size()));
+    }
+
+    public long globalId(Shard shard, long localId) {
+        return localId * shards.size() + shard.getIndex();
+    }
+
+    public long localId(long id) {
+        return Math.floorDiv(id, (long) shards.size());
+    }
+
+    /**
+     * Gives the shard an order number belongs to. Stable across JVMs and releases, so it
+     * must not change once shard files exist.
+     */
+    public static int shardIndex(String orderNumber, int shardCount) {
+        // A null number goes to shard 0 so its NOT NULL constraint reports the error
+        if (shardCount == 1 || orderNumber == null) {
+            return 0;
+        }
+        // String.hashCode is specified and stable. The murmur3 finalizer spreads
+        // sequential order numbers evenly across shards.
+        int h = orderNumber.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return Math.floorMod(h, shardCount);
+    }
+
+    /**
+     * Runs {@code work} on every shard in parallel and returns the results in shard order.
+     * The first shard runs on the calling thread.
+     */
+    public <T> List<T> scatter(Function<Shard, T> work) {
+        if (scatterExecutor == null) {
+            // Not List.of: work that returns null must behave as it does on the executor path
+            return Collections.singletonList(work.apply(shards.get(0)));
+        }
+        List<Future<T>> futures = new ArrayList<>(shards.size() - 1);
+        for (Shard shard : shards.subList(1, shards.size())) {
+            futures.add(scatterExecutor.submit(() -> work.apply(shard)));
+        }
+        List<T> results = new ArrayList<>(shards.size());
+        try {
+            results.add(work.apply(shards.get(0)));
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (RuntimeException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shards", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Shard query failed", e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * K-way merge of lists that are each already sorted by {@code order}. Skips the first
+     * {@code skip} merged elements and returns at most {@code limit}.
+     */
+    public static <T> List<T> mergeSorted(List<List<T>> sortedLists, Comparator<? super T> order, int skip, int limit) {
+        if (sortedLists.size() == 1) {
+            List<T> only = sortedLists.get(0);
+            int from = Math.min(skip, only.size());
+            return new ArrayList<>(only.subList(from, (int) Math.min(only.size(), (long) from + limit)));
+        }
+
+        // Heap entries are {list, position}; only the head of each list is ever compared
+        PriorityQueue<int[]> heads = new PriorityQueue<>(sortedLists.size(),
+            (a, b) -> order.compare(sortedLists.get(a[0]).get(a[1]), sortedLists.get(b[0]).get(b[1])));
+        for (int i = 0; i < sortedLists.size(); i++) {
+            if (!sortedLists.get(i).isEmpty()) {
+                heads.add(new int[] {i, 0});
+            }
+        }
+
+        List<T> merged = new ArrayList<>(Math.min(limit, 1024));
+        int skipped = 0;
+        while (!heads.isEmpty() && merged.size() < limit) {
+            int[] head = heads.poll();
+            List<T> list = sortedLists.get(head[0]);
+            if (skipped < skip) {
+                skipped++;
+            } else {
+                merged.add(list.get(head[1]));
+            }
+            if (head[1] + 1 < list.size()) {
+                head[1]++;
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdownNow();
+        }
+        for (AutoCloseable resource : resources) {
+            resource.close();
+        }
+    }
+}
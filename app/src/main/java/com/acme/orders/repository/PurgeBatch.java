@@ -0,0 +1,38 @@
+package com.acme.orders.repository;
+
+import java.util.List;
+
+public class PurgeBatch {
+    private final List<Long> orderIds;
+    private final List<String> orderNumbers;
+    private final int itemsDeleted;
+    private final long lastId;
+
+    public PurgeBatch(List<Long> orderIds, List<String> orderNumbers, int itemsDeleted, long lastId) {
+        this.orderIds = orderIds;
+        this.orderNumbers = orderNumbers;
+        this.itemsDeleted = itemsDeleted;
+        this.lastId = lastId;
+    }
+
+    public List<Long> getOrderIds() {
+        return orderIds;
+    }
+
+    public List<String> getOrderNumbers() {
+        return orderNumbers;
+    }
+
+    public int getItemsDeleted() {
+        return itemsDeleted;
+    }
+
+    // Keyset cursor for the next batch: the last id this batch examined, deleted or not
+    public long getLastId() {
+        return lastId;
+    }
+
+    public boolean isEmpty() {
+        return orderIds.isEmpty();
+    }
+}
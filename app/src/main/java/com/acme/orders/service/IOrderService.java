@@ -1,5 +1,6 @@
 package com.acme.orders.service;
 
+import com.acme.orders.cache.EncodedResponse;
 import com.acme.orders.model.Order;
 
 import java.util.List;
@@ -10,9 +11,10 @@ public interface IOrderService {
     Optional<Order> getOrderById(Long id);
     Optional<Order> getOrderByOrderNumber(String orderNumber);
     Optional<Order> getOrderWithItemsByOrderNumber(String orderNumber);
+    Optional<EncodedResponse> getOrderDetailsDocument(String orderNumber);
     Order createOrder(Order order);
-    Optional<Order> updateOrder(Long id, Order orderDetails);
-    boolean updateOrderByOrderNumber(String orderNumber, Order orderDetails);
+    Optional<Order> updateOrder(Long id, Order orderDetails, Long expectedVersion);
+    List<Order> updateOrderByOrderNumber(String orderNumber, Order orderDetails, Long expectedVersion);
     void deleteOrder(Long id);
     long getOrderCount();
     List<Order> getRecentOrdersWithItems(int limit);
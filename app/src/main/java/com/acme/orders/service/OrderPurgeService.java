@@ -0,0 +1,144 @@
+package com.acme.orders.service;
+
+import com.acme.orders.cache.OrderResponseCache;
+import com.acme.orders.model.PurgeJob;
+import com.acme.orders.repository.OrderRepository;
+import com.acme.orders.repository.PurgeBatch;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes orders (and their items) matching a status/created_at predicate in small
+ * transactions, pausing between batches so regular writers can take the SQLite write
+ * lock. Jobs run one at a time on a background thread and report progress via {@link PurgeJob}.
+ */
+@Service
+public class OrderPurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderPurgeService.class);
+
+    private static final int MAX_BATCH_SIZE = 5000;
+
+    private final OrderRepository orderRepository;
+    private final OrderResponseCache responseCache;
+    private final int vacuumPagesPerBatch;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "order-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<Long, PurgeJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong nextJobId = new AtomicLong(1);
+
+    public OrderPurgeService(OrderRepository orderRepository, OrderResponseCache responseCache,
+                             @Value("${orders.purge.vacuum-pages-per-batch:512}") int vacuumPagesPerBatch) {
+        this.orderRepository = orderRepository;
+        this.responseCache = responseCache;
+        this.vacuumPagesPerBatch = vacuumPagesPerBatch;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(PurgeJob::requestCancel);
+        executor.shutdown();
+    }
+
+    public PurgeJob startPurge(String status, LocalDateTime createdBefore, int batchSize, long pauseMillis) {
+        PurgeJob job = new PurgeJob(nextJobId.getAndIncrement(), status, createdBefore,
+                Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE)), Math.max(0, pauseMillis));
+        jobs.put(job.getId(), job);
+        executor.submit(() -> run(job));
+        return job;
+    }
+
+    public Optional<PurgeJob> getJob(long id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public List<PurgeJob> getJobs() {
+        List<PurgeJob> all = new ArrayList<>(jobs.values());
+        all.sort(Comparator.comparingLong(PurgeJob::getId).reversed());
+        return all;
+    }
+
+    public boolean cancel(long id) {
+        PurgeJob job = jobs.get(id);
+        if (job == null) {
+            return false;
+        }
+        job.requestCancel();
+        return true;
+    }
+
+    public boolean isIncrementalVacuumEnabled() {
+        return orderRepository.isIncrementalVacuumEnabled();
+    }
+
+    public void enableIncrementalVacuum() {
+        long startTime = System.currentTimeMillis();
+        orderRepository.enableIncrementalVacuum();
+        logger.info("Switched database to incremental auto_vacuum in {}ms", System.currentTimeMillis() - startTime);
+    }
+
+    private void run(PurgeJob job) {
+        try {
+            job.setDatabaseBytesBefore(orderRepository.databaseSizeBytes());
+            job.setMatchedOrders(orderRepository.countPurgeCandidates(job.getStatus(), job.getCreatedBefore()));
+            boolean incrementalVacuum = orderRepository.isIncrementalVacuumEnabled();
+            if (!incrementalVacuum) {
+                logger.warn("Purge job {}: auto_vacuum is not INCREMENTAL, freed pages will be reused but the file will not shrink",
+                            job.getId());
+            }
+
+            long lastId = 0;
+            while (!job.isCancelRequested()) {
+                PurgeBatch batch = orderRepository.purgeBatch(job.getStatus(), job.getCreatedBefore(), job.getBatchSize(), lastId);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                lastId = batch.getLastId();
+                batch.getOrderNumbers().forEach(responseCache::invalidate);
+                job.recordBatch(batch.getOrderIds().size(), batch.getItemsDeleted());
+
+                if (incrementalVacuum) {
+                    orderRepository.incrementalVacuum(vacuumPagesPerBatch);
+                }
+                if (job.getPauseMillis() > 0) {
+                    Thread.sleep(job.getPauseMillis());
+                }
+            }
+
+            if (incrementalVacuum) {
+                orderRepository.incrementalVacuum(0);
+            }
+            job.setDatabaseBytesAfter(orderRepository.databaseSizeBytes());
+            job.setState(job.isCancelRequested() ? PurgeJob.State.CANCELLED : PurgeJob.State.COMPLETED);
+            logger.info("Purge job {} {}: {} orders, {} items in {} batches",
+                        job.getId(), job.getState(), job.getOrdersDeleted(), job.getItemsDeleted(), job.getBatches());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.setState(PurgeJob.State.CANCELLED);
+        } catch (RuntimeException e) {
+            logger.error("Purge job {} failed", job.getId(), e);
+            job.setError(e.toString());
+            job.setState(PurgeJob.State.FAILED);
+        } finally {
+            job.setFinishedAt(LocalDateTime.now());
+        }
+    }
+}
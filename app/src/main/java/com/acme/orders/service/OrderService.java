@@ -1,8 +1,12 @@
 package com.acme.orders.service;
 
+import com.acme.orders.cache.EncodedResponse;
+import com.acme.orders.cache.OrderResponseCache;
 import com.acme.orders.model.Order;
 import com.acme.orders.model.OrderItem;
 import com.acme.orders.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -12,9 +16,13 @@ import java.util.Optional;
 public class OrderService implements IOrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderResponseCache responseCache;
+    private final ObjectMapper objectMapper;
 
-    public OrderService(OrderRepository orderRepository) {
+    public OrderService(OrderRepository orderRepository, OrderResponseCache responseCache, ObjectMapper objectMapper) {
         this.orderRepository = orderRepository;
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
     }
 
     public List<Order> getAllOrders() {
@@ -33,26 +41,45 @@ public class OrderService implements IOrderService {
         return orderRepository.findOrderWithItemsByOrderNumber(orderNumber);
     }
 
+    public Optional<EncodedResponse> getOrderDetailsDocument(String orderNumber) {
+        Optional<Order> probe = orderRepository.findVersionByOrderNumber(orderNumber);
+        if (probe.isEmpty()) {
+            return Optional.empty();
+        }
+        Long orderId = probe.get().getId();
+        long version = probe.get().getVersion();
+
+        EncodedResponse cached = responseCache.get(orderNumber, orderId, version);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        // Stored under the version the row was read at. Every update bumps the version, so a
+        // write that lands in between makes the next probe miss rather than serve these bytes
+        return orderRepository.findOrderWithItemsByOrderNumber(orderNumber)
+                .map(order -> responseCache.put(orderNumber, order.getId(), order.getVersion(), encode(order)));
+    }
+
     public Order createOrder(Order order) {
+        responseCache.invalidate(order.getOrderNumber());
         return orderRepository.save(order);
     }
 
-    public Optional<Order> updateOrder(Long id, Order orderDetails) {
-        return orderRepository.findById(id).map(existingOrder -> {
-            existingOrder.setCustomerName(orderDetails.getCustomerName());
-            existingOrder.setStatus(orderDetails.getStatus());
-            existingOrder.setAmount(orderDetails.getAmount());
-            return orderRepository.save(existingOrder);
-        });
+    public Optional<Order> updateOrder(Long id, Order orderDetails, Long expectedVersion) {
+        Optional<Order> updated = orderRepository.updateById(id, orderDetails, expectedVersion);
+        updated.ifPresent(order -> responseCache.invalidate(order.getOrderNumber()));
+        return updated;
     }
 
-    public boolean updateOrderByOrderNumber(String orderNumber, Order orderDetails) {
-        int updated = orderRepository.updateByOrderNumber(orderNumber, orderDetails);
-        return updated > 0;
+    public List<Order> updateOrderByOrderNumber(String orderNumber, Order orderDetails, Long expectedVersion) {
+        List<Order> updated = orderRepository.updateByOrderNumber(orderNumber, orderDetails, expectedVersion);
+        responseCache.invalidate(orderNumber);
+        return updated;
     }
 
     public void deleteOrder(Long id) {
         orderRepository.deleteById(id);
+        responseCache.invalidateByOrderId(id);
     }
 
     public long getOrderCount() {
@@ -69,4 +96,12 @@ public class OrderService implements IOrderService {
         
         return orders;
     }
+
+    private byte[] encode(Order order) {
+        try {
+            return objectMapper.writeValueAsBytes(order);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode order " + order.getOrderNumber(), e);
+        }
+    }
 }
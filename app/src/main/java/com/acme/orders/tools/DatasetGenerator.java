@@ -0,0 +1,392 @@
+package com.acme.orders.tools;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds a reproducible orders/order_items SQLite file for scaling benchmarks. The same
+ * options and seed always produce the same rows. The file gets the application schema
+ * from schema.sql and is stamped with the current schema version.
+ *
+ * <p>Loading uses one prepared batch per table, a commit every {@code batchSize} orders
+ * and journaling switched off. Indexes are created after all rows are in.
+ *
+ * <pre>
+ *   mvn compile exec:java -Dexec.mainClass=com.acme.orders.tools.DatasetGenerator \
+ *       -Dexec.args="--orders=1000000 --output=data/orders-1m.db"
+ * </pre>
+ */
+public class DatasetGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    private static final String[] FIRST_NAMES = {
+        "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+        "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+        "Wei", "Aisha", "Carlos", "Yuki", "Olga", "Priya", "Mateo", "Fatima", "Lars", "Amara"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+        "Hernandez", "Lopez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin", "Lee",
+        "Chen", "Khan", "Silva", "Tanaka", "Ivanova", "Patel", "Rossi", "Nguyen", "Berg", "Okafor"
+    };
+    private static final String[] STREETS = {
+        "Main St", "Oak Ave", "Pine Rd", "Maple Dr", "Cedar Ln", "Elm St", "Lake View", "Hill Rd", "Park Ave", "River Rd"
+    };
+    private static final String[] CITIES = {
+        "Springfield", "Riverton", "Franklin", "Greenville", "Bristol", "Clinton", "Fairview", "Salem", "Madison", "Georgetown"
+    };
+    private static final String[] CHANNELS = {"web", "mobile", "phone", "partner"};
+    private static final int PADDING_POOL_SIZE = 1024;
+
+    private final Options options;
+    private final SplittableRandom random;
+
+    private String[] productNames;
+    private long[] productPriceCents;
+    private String[] paddingPool;
+    private String[] statusNames;
+    private double[] statusCumulativeWeights;
+
+    public DatasetGenerator(Options options) {
+        this.options = options;
+        this.random = new SplittableRandom(options.seed);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        Result result = new DatasetGenerator(options).generate();
+        logger.info("Wrote {} orders and {} items to {} in {}s ({} bytes)",
+                    result.orders, result.items, options.output,
+                    TimeUnit.MILLISECONDS.toSeconds(result.elapsedMillis), Files.size(options.output));
+    }
+
+    public Result generate() throws IOException, SQLException {
+        if (Files.exists(options.output)) {
+            if (!options.force) {
+                throw new IllegalStateException(options.output + " already exists; pass --force to replace it");
+            }
+            Files.delete(options.output);
+        }
+        Path parent = options.output.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        prepareDictionaries();
+
+        long startTime = System.currentTimeMillis();
+        List<String> tableStatements = new ArrayList<>();
+        List<String> indexStatements = new ArrayList<>();
+        for (String statement : schemaStatements()) {
+            if (statement.toUpperCase(Locale.ROOT).startsWith("CREATE INDEX")) {
+                indexStatements.add(statement);
+            } else {
+                tableStatements.add(statement);
+            }
+        }
+
+        long items;
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + options.output)) {
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : tableStatements) {
+                    statement.execute(sql);
+                }
+                // Safe only because a failed load is thrown away and regenerated
+                statement.execute("PRAGMA journal_mode = OFF");
+                statement.execute("PRAGMA synchronous = OFF");
+                statement.execute("PRAGMA locking_mode = EXCLUSIVE");
+                statement.execute("PRAGMA temp_store = MEMORY");
+                statement.execute("PRAGMA cache_size = -262144");
+            }
+
+            items = loadRows(connection);
+
+            long indexStart = System.currentTimeMillis();
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : indexStatements) {
+                    statement.execute(sql);
+                }
+                statement.execute("ANALYZE");
+                statement.execute("PRAGMA user_version = " + schemaVersion());
+                statement.execute("PRAGMA journal_mode = DELETE");
+            }
+            logger.info("Created {} indexes in {}ms", indexStatements.size(), System.currentTimeMillis() - indexStart);
+        }
+        return new Result(options.orders, items, System.currentTimeMillis() - startTime);
+    }
+
+    private long loadRows(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+        // UTC so the file is byte-for-byte the same whatever the generating machine's zone
+        long endMillis = options.end.toInstant(ZoneOffset.UTC).toEpochMilli();
+        long spanMillis = TimeUnit.DAYS.toMillis(options.days);
+        long startMillis = endMillis - spanMillis;
+        long stepMillis = Math.max(1, spanMillis / Math.max(1, options.orders));
+
+        long itemCount = 0;
+        long lastCommittedId = 0;
+        long batchStart = System.currentTimeMillis();
+        try (PreparedStatement orderInsert = connection.prepareStatement(
+                 "INSERT INTO orders (id, order_number, customer_name, customer_email, status, amount, shipping_address, " +
+                 "order_metadata, created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)");
+             PreparedStatement itemInsert = connection.prepareStatement(
+                 "INSERT INTO order_items (order_number, product_sku, product_name, quantity, unit_price, created_at) " +
+                 "VALUES (?, ?, ?, ?, ?, ?)")) {
+
+            for (long id = 1; id <= options.orders; id++) {
+                String orderNumber = String.format(Locale.ROOT, "ORD-%08d", id);
+                // Ids follow time like a live autoincrement table, with jitter inside each step
+                long createdAt = startMillis + (id - 1) * stepMillis + random.nextLong(stepMillis);
+                String status = pickStatus();
+                long updatedAt = "PENDING".equals(status)
+                        ? createdAt
+                        : Math.min(endMillis, createdAt + random.nextLong(TimeUnit.DAYS.toMillis(14)));
+
+                int itemsInOrder = pickItemCount();
+                long amountCents = 0;
+                for (int i = 0; i < itemsInOrder; i++) {
+                    int product = pickProduct();
+                    int quantity = 1 + (random.nextInt(10) == 0 ? random.nextInt(9) : 0);
+                    amountCents += productPriceCents[product] * quantity;
+
+                    itemInsert.setString(1, orderNumber);
+                    itemInsert.setString(2, String.format(Locale.ROOT, "SKU-%05d", product + 1));
+                    itemInsert.setString(3, productNames[product]);
+                    itemInsert.setInt(4, quantity);
+                    itemInsert.setDouble(5, productPriceCents[product] / 100.0);
+                    itemInsert.setLong(6, createdAt);
+                    itemInsert.addBatch();
+                }
+                itemCount += itemsInOrder;
+
+                String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                orderInsert.setLong(1, id);
+                orderInsert.setString(2, orderNumber);
+                orderInsert.setString(3, first + " " + last);
+                orderInsert.setString(4, (first + "." + last + random.nextInt(1000)).toLowerCase(Locale.ROOT) + "@example.com");
+                orderInsert.setString(5, status);
+                orderInsert.setDouble(6, amountCents / 100.0);
+                orderInsert.setString(7, (1 + random.nextInt(9999)) + " " + STREETS[random.nextInt(STREETS.length)]
+                        + ", " + CITIES[random.nextInt(CITIES.length)]);
+                orderInsert.setString(8, metadata());
+                orderInsert.setLong(9, createdAt);
+                orderInsert.setLong(10, updatedAt);
+                orderInsert.addBatch();
+
+                if (id % options.batchSize == 0 || id == options.orders) {
+                    orderInsert.executeBatch();
+                    itemInsert.executeBatch();
+                    connection.commit();
+                    long elapsed = Math.max(1, System.currentTimeMillis() - batchStart);
+                    logger.info("Loaded {}/{} orders ({} orders/s)", id, options.orders,
+                                (id - lastCommittedId) * 1000 / elapsed);
+                    lastCommittedId = id;
+                    batchStart = System.currentTimeMillis();
+                }
+            }
+        }
+        connection.setAutoCommit(true);
+        return itemCount;
+    }
+
+    private void prepareDictionaries() {
+        productNames = new String[options.products];
+        productPriceCents = new long[options.products];
+        for (int i = 0; i < options.products; i++) {
+            productNames[i] = "Product " + (i + 1);
+            // Log-uniform between $1 and $500 so cheap items dominate
+            productPriceCents[i] = Math.round(100 * Math.exp(random.nextDouble() * Math.log(500)));
+        }
+
+        paddingPool = new String[PADDING_POOL_SIZE];
+        for (int i = 0; i < PADDING_POOL_SIZE; i++) {
+            StringBuilder padding = new StringBuilder(options.metadataBytes);
+            for (int c = 0; c < options.metadataBytes; c++) {
+                padding.append((char) ('a' + random.nextInt(26)));
+            }
+            paddingPool[i] = padding.toString();
+        }
+
+        statusNames = options.statusWeights.keySet().toArray(new String[0]);
+        statusCumulativeWeights = new double[statusNames.length];
+        double total = options.statusWeights.values().stream().mapToDouble(Double::doubleValue).sum();
+        double running = 0;
+        for (int i = 0; i < statusNames.length; i++) {
+            running += options.statusWeights.get(statusNames[i]) / total;
+            statusCumulativeWeights[i] = running;
+        }
+    }
+
+    private String pickStatus() {
+        double r = random.nextDouble();
+        for (int i = 0; i < statusNames.length - 1; i++) {
+            if (r < statusCumulativeWeights[i]) {
+                return statusNames[i];
+            }
+        }
+        return statusNames[statusNames.length - 1];
+    }
+
+    // 1 + geometric, so most orders are small with a long tail up to itemsMax
+    private int pickItemCount() {
+        double continueProbability = 1.0 - 1.0 / Math.max(1.0, options.itemsAvg);
+        int count = 1;
+        while (count < options.itemsMax && random.nextDouble() < continueProbability) {
+            count++;
+        }
+        return count;
+    }
+
+    // Squaring a uniform draw skews picks toward the low product ids (popular products)
+    private int pickProduct() {
+        double u = random.nextDouble();
+        return (int) (u * u * options.products);
+    }
+
+    private String metadata() {
+        return "{\"channel\":\"" + CHANNELS[random.nextInt(CHANNELS.length)] + "\",\"notes\":\""
+                + paddingPool[random.nextInt(PADDING_POOL_SIZE)] + "\"}";
+    }
+
+    private static List<String> schemaStatements() throws IOException {
+        StringBuilder script = new StringBuilder();
+        for (String line : readResource("schema.sql").split("\n")) {
+            if (!line.trim().startsWith("--")) {
+                script.append(line).append('\n');
+            }
+        }
+        List<String> statements = new ArrayList<>();
+        for (String statement : script.toString().split(";")) {
+            if (!statement.isBlank()) {
+                statements.add(statement.trim());
+            }
+        }
+        return statements;
+    }
+
+    private static int schemaVersion() throws IOException {
+        Properties properties = new Properties();
+        properties.load(new StringReader(readResource("application.properties")));
+        return Integer.parseInt(properties.getProperty("orders.schema.version", "1").trim());
+    }
+
+    private static String readResource(String name) throws IOException {
+        try (InputStream in = DatasetGenerator.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalStateException(name + " not found on the classpath");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    public static class Options {
+        Path output = Paths.get("data/orders-generated.db");
+        long seed = 42;
+        long orders = 1_000_000;
+        int batchSize = 50_000;
+        double itemsAvg = 3.0;
+        int itemsMax = 20;
+        int products = 5_000;
+        int metadataBytes = 200;
+        int days = 365;
+        LocalDateTime end = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Map<String, Double> statusWeights = parseWeights("DELIVERED:55,SHIPPED:15,PROCESSING:8,PENDING:12,CANCELLED:10");
+        boolean force;
+
+        public static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                if (arg.equals("--force")) {
+                    options.force = true;
+                    continue;
+                }
+                int eq = arg.indexOf('=');
+                if (!arg.startsWith("--") || eq < 0) {
+                    throw new IllegalArgumentException("Expected --name=value, got " + arg);
+                }
+                String name = arg.substring(2, eq);
+                String value = arg.substring(eq + 1);
+                switch (name) {
+                    case "output" -> options.output = Paths.get(value);
+                    case "seed" -> options.seed = Long.parseLong(value);
+                    case "orders" -> options.orders = Long.parseLong(value);
+                    case "batch-size" -> options.batchSize = Integer.parseInt(value);
+                    case "items-avg" -> options.itemsAvg = Double.parseDouble(value);
+                    case "items-max" -> options.itemsMax = Integer.parseInt(value);
+                    case "products" -> options.products = Integer.parseInt(value);
+                    case "metadata-bytes" -> options.metadataBytes = Integer.parseInt(value);
+                    case "days" -> options.days = Integer.parseInt(value);
+                    case "end" -> options.end = LocalDateTime.parse(value);
+                    case "statuses" -> options.statusWeights = parseWeights(value);
+                    default -> throw new IllegalArgumentException("Unknown option --" + name);
+                }
+            }
+            if (options.orders < 1 || options.batchSize < 1 || options.itemsMax < 1 || options.products < 1
+                    || options.days < 1 || options.metadataBytes < 0) {
+                throw new IllegalArgumentException("orders, batch-size, items-max, products and days must be positive");
+            }
+            return options;
+        }
+
+        // "DELIVERED:55,PENDING:12" -> ordered name/weight pairs
+        private static Map<String, Double> parseWeights(String spec) {
+            Map<String, Double> weights = new LinkedHashMap<>();
+            for (String entry : spec.split(",")) {
+                String[] parts = entry.trim().split(":");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Expected STATUS:weight, got " + entry);
+                }
+                weights.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+            }
+            return weights;
+        }
+    }
+
+    public static class Result {
+        private final long orders;
+        private final long items;
+        private final long elapsedMillis;
+
+        Result(long orders, long items, long elapsedMillis) {
+            this.orders = orders;
+            this.items = items;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long getOrders() {
+            return orders;
+        }
+
+        public long getItems() {
+            return items;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+}
@@ -0,0 +1,2 @@
+-- Optimistic concurrency: bumped by every UPDATE ... RETURNING in OrderRepository
+ALTER TABLE orders ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
@@ -1,4 +1,7 @@
--- Orders table schema
+-- Only takes effect on a new database file; existing files are switched with POST /api/admin/purge/vacuum
+PRAGMA auto_vacuum = INCREMENTAL;
+
+-- Orders table schema (existing databases pick up new columns from db/migration)
 CREATE TABLE IF NOT EXISTS orders (
     id INTEGER PRIMARY KEY AUTOINCREMENT,
     order_number TEXT NOT NULL,
@@ -9,7 +12,8 @@ CREATE TABLE IF NOT EXISTS orders (
     shipping_address TEXT,
     order_metadata TEXT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version INTEGER NOT NULL DEFAULT 0
 );
 
 -- Order items table
@@ -23,4 +27,11 @@ CREATE TABLE IF NOT EXISTS order_items (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Item lookups and cascading deletes go through order_number
+CREATE INDEX IF NOT EXISTS idx_order_items_order_number ON order_items (order_number);
+
+-- Bulk purge predicate
+CREATE INDEX IF NOT EXISTS idx_orders_status_created_at ON orders (status, created_at);
 
+-- Purge batches walk (status, rowid) in id order, so no batch sorts the remaining candidates
+CREATE INDEX IF NOT EXISTS idx_orders_status ON orders (status);
@@ -0,0 +1,93 @@
+package com.acme.orders;
+
+import com.acme.orders.tools.DatasetGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatasetGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static List<String> dump(Path db, String sql) throws Exception {
+        List<String> rows = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + db);
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                StringBuilder row = new StringBuilder();
+                for (int i = 1; i <= columns; i++) {
+                    row.append(rs.getString(i)).append('|');
+                }
+                rows.add(row.toString());
+            }
+        }
+        return rows;
+    }
+
+    private Path generate(String name, String... extraArgs) throws Exception {
+        Path output = tempDir.resolve(name);
+        List<String> args = new ArrayList<>(List.of("--output=" + output, "--orders=500", "--batch-size=128"));
+        args.addAll(List.of(extraArgs));
+        new DatasetGenerator(DatasetGenerator.Options.parse(args.toArray(new String[0]))).generate();
+        return output;
+    }
+
+    @Test
+    void generate_IgnoresDefaultLocale() throws Exception {
+        Path reference = generate("reference.db", "--seed=7");
+        Locale defaultLocale = Locale.getDefault();
+        Path localized;
+        try {
+            // Formats digits as Thai numerals
+            Locale.setDefault(Locale.forLanguageTag("th-TH-u-nu-thai"));
+            localized = generate("localized.db", "--seed=7");
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+
+        assertEquals(List.of("ORD-00000001|"), dump(localized, "SELECT order_number FROM orders WHERE id = 1"));
+        assertEquals(dump(reference, "SELECT * FROM orders ORDER BY id"),
+                     dump(localized, "SELECT * FROM orders ORDER BY id"));
+        assertEquals(dump(reference, "SELECT * FROM order_items ORDER BY id"),
+                     dump(localized, "SELECT * FROM order_items ORDER BY id"));
+    }
+
+    @Test
+    void generate_SameSeed_ProducesIdenticalData() throws Exception {
+        Path first = generate("first.db", "--seed=7");
+        Path second = generate("second.db", "--seed=7");
+        Path other = generate("other.db", "--seed=8");
+
+        String orders = "SELECT * FROM orders ORDER BY id";
+        String items = "SELECT * FROM order_items ORDER BY id";
+        assertEquals(dump(first, orders), dump(second, orders));
+        assertEquals(dump(first, items), dump(second, items));
+        assertNotEquals(dump(first, orders), dump(other, orders));
+    }
+
+    @Test
+    void generate_HonoursSizeSkewAndSchema() throws Exception {
+        Path db = generate("skew.db", "--statuses=PENDING:1,CANCELLED:0", "--items-max=1", "--metadata-bytes=10");
+
+        assertEquals(List.of("500|"), dump(db, "SELECT COUNT(*) FROM orders"));
+        assertEquals(List.of("500|"), dump(db, "SELECT COUNT(*) FROM order_items"));
+        assertEquals(List.of("PENDING|"), dump(db, "SELECT DISTINCT status FROM orders"));
+        assertEquals(List.of("ORD-00000001|"), dump(db, "SELECT order_number FROM orders WHERE id = 1"));
+        // Deferred indexes still end up in place, and the app sees the schema as current
+        assertFalse(dump(db, "SELECT name FROM sqlite_master WHERE name = 'idx_order_items_order_number'").isEmpty());
+        assertNotEquals(List.of("0|"), dump(db, "PRAGMA user_version"));
+    }
+}
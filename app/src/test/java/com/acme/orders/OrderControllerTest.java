@@ -1,24 +1,29 @@
 package com.acme.orders;
 
+import com.acme.orders.cache.EncodedResponse;
 import com.acme.orders.controller.OrderController;
 import com.acme.orders.model.Order;
 import com.acme.orders.model.OrderItem;
 import com.acme.orders.service.IOrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -29,6 +34,9 @@ class OrderControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @MockBean
     private IOrderService orderService;
 
@@ -103,7 +111,7 @@ class OrderControllerTest {
         updatedOrder.setStatus("SHIPPED");
         updatedOrder.setAmount(new BigDecimal("149.99"));
 
-        when(orderService.updateOrder(eq(1L), any(Order.class))).thenReturn(Optional.of(updatedOrder));
+        when(orderService.updateOrder(eq(1L), any(Order.class), isNull())).thenReturn(Optional.of(updatedOrder));
 
         mockMvc.perform(put("/api/orders/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -115,7 +123,8 @@ class OrderControllerTest {
 
     @Test
     void updateOrderByNumber_WhenExists_ReturnsOk() throws Exception {
-        when(orderService.updateOrderByOrderNumber(eq("ORD-00000001"), any(Order.class))).thenReturn(true);
+        when(orderService.updateOrderByOrderNumber(eq("ORD-00000001"), any(Order.class), isNull()))
+                .thenReturn(List.of(testOrder));
 
         mockMvc.perform(put("/api/orders/number/ORD-00000001")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -125,7 +134,8 @@ class OrderControllerTest {
 
     @Test
     void updateOrderByNumber_WhenNotExists_Returns404() throws Exception {
-        when(orderService.updateOrderByOrderNumber(eq("ORD-99999999"), any(Order.class))).thenReturn(false);
+        when(orderService.updateOrderByOrderNumber(eq("ORD-99999999"), any(Order.class), isNull()))
+                .thenReturn(List.of());
 
         mockMvc.perform(put("/api/orders/number/ORD-99999999")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -133,6 +143,49 @@ class OrderControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void updateOrder_WithMatchingIfMatch_ReturnsNewETag() throws Exception {
+        Order updatedOrder = new Order();
+        updatedOrder.setId(1L);
+        updatedOrder.setOrderNumber("ORD-00000001");
+        updatedOrder.setCustomerName("Updated Customer");
+        updatedOrder.setVersion(4L);
+
+        when(orderService.updateOrder(eq(1L), any(Order.class), eq(3L))).thenReturn(Optional.of(updatedOrder));
+
+        mockMvc.perform(put("/api/orders/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerName\":\"Updated Customer\",\"status\":\"SHIPPED\",\"amount\":149.99}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @Test
+    void updateOrder_WithStaleIfMatch_Returns409() throws Exception {
+        when(orderService.updateOrder(eq(1L), any(Order.class), eq(2L)))
+                .thenThrow(new OptimisticLockingFailureException("Order id 1 is no longer at version 2"));
+
+        mockMvc.perform(put("/api/orders/1")
+                        .header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerName\":\"Updated Customer\",\"status\":\"SHIPPED\",\"amount\":149.99}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void updateOrderByNumber_WithStaleIfMatch_Returns409() throws Exception {
+        when(orderService.updateOrderByOrderNumber(eq("ORD-00000001"), any(Order.class), eq(2L)))
+                .thenThrow(new OptimisticLockingFailureException("Order ORD-00000001 is no longer at version 2"));
+
+        mockMvc.perform(put("/api/orders/number/ORD-00000001")
+                        .header("If-Match", "W/\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerName\":\"Updated Customer\",\"status\":\"SHIPPED\",\"amount\":149.99}"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void deleteOrder_ReturnsNoContent() throws Exception {
         mockMvc.perform(delete("/api/orders/1"))
@@ -161,7 +214,8 @@ class OrderControllerTest {
 
         orderWithItems.setItems(Arrays.asList(item1));
 
-        when(orderService.getOrderWithItemsByOrderNumber("ORD-00000001")).thenReturn(Optional.of(orderWithItems));
+        EncodedResponse document = EncodedResponse.onHeap(objectMapper.writeValueAsBytes(orderWithItems));
+        when(orderService.getOrderDetailsDocument("ORD-00000001")).thenReturn(Optional.of(document));
 
         mockMvc.perform(get("/api/orders/number/ORD-00000001/details"))
                 .andExpect(status().isOk())
@@ -173,7 +227,7 @@ class OrderControllerTest {
 
     @Test
     void getOrderDetailsByNumber_WhenNotExists_Returns404() throws Exception {
-        when(orderService.getOrderWithItemsByOrderNumber("ORD-99999999")).thenReturn(Optional.empty());
+        when(orderService.getOrderDetailsDocument("ORD-99999999")).thenReturn(Optional.empty());
 
         mockMvc.perform(get("/api/orders/number/ORD-99999999/details"))
                 .andExpect(status().isNotFound());
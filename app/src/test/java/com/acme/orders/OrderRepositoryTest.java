@@ -0,0 +1,320 @@
+package com.acme.orders;
+
+import com.acme.orders.columnar.OrderColumnStore;
+import com.acme.orders.config.VersionedSchemaInitializer;
+import com.acme.orders.model.Order;
+import com.acme.orders.repository.OrderRepository;
+import com.acme.orders.repository.OrderShards;
+import com.acme.orders.repository.PurgeBatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderRepositoryTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private OrderColumnStore columnStore;
+    private OrderRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:sqlite:" + tempDir.resolve("orders.db"));
+        SqlInitializationProperties schema = new SqlInitializationProperties();
+        schema.setSchemaLocations(List.of("classpath:schema.sql"));
+        schema.setMode(DatabaseInitializationMode.ALWAYS);
+        new VersionedSchemaInitializer(dataSource, schema, 4).initializeDatabase();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        columnStore = new OrderColumnStore(false, 1);
+        repository = new OrderRepository(
+            OrderShards.single(jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(dataSource))),
+            columnStore);
+    }
+
+    @AfterEach
+    void tearDown() {
+        columnStore.shutdown();
+    }
+
+    // createdAt is epoch millis (JDBC writes) or 'yyyy-MM-dd HH:mm:ss' text (CURRENT_TIMESTAMP default)
+    private long insertOrder(String orderNumber, String status, Object createdAt, int items) {
+        long id = jdbcTemplate.queryForObject(
+            "INSERT INTO orders (order_number, customer_name, status, amount, order_metadata, created_at, updated_at) " +
+            "VALUES (?, 'Test Customer', ?, 10.00, ?, ?, ?) RETURNING id",
+            Long.class, orderNumber, status, "x".repeat(2000), createdAt, createdAt);
+        for (int i = 0; i < items; i++) {
+            jdbcTemplate.update(
+                "INSERT INTO order_items (order_number, product_sku, product_name, quantity, unit_price) " +
+                "VALUES (?, 'SKU-1', 'Product 1', 1, 10.00)", orderNumber);
+        }
+        return id;
+    }
+
+    private static long millis(LocalDateTime time) {
+        return Timestamp.valueOf(time).getTime();
+    }
+
+    private int itemCount(String orderNumber) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_items WHERE order_number = ?", Integer.class, orderNumber);
+    }
+
+    private static Order changes(String status) {
+        Order changes = new Order();
+        changes.setCustomerName("Updated Customer");
+        changes.setStatus(status);
+        changes.setAmount(new BigDecimal("42.50"));
+        return changes;
+    }
+
+    @Test
+    void save_InsertsAtVersionZero() {
+        Order saved = repository.save(new Order("ORD-NEW", "New Customer", "PENDING", new BigDecimal("9.99")));
+
+        Order found = repository.findById(saved.getId()).orElseThrow();
+        assertEquals("ORD-NEW", found.getOrderNumber());
+        assertEquals(0L, found.getVersion());
+        assertEquals(saved.getId(), repository.findVersionByOrderNumber("ORD-NEW").orElseThrow().getId());
+    }
+
+    @Test
+    void updateById_MatchingVersionAppliesAndBumpsVersion() {
+        long id = insertOrder("ORD-1", "PENDING", millis(CUTOFF), 0);
+
+        Order updated = repository.updateById(id, changes("SHIPPED"), 0L).orElseThrow();
+
+        assertEquals(1L, updated.getVersion());
+        assertEquals("SHIPPED", updated.getStatus());
+        assertEquals("Updated Customer", updated.getCustomerName());
+        assertEquals(0, new BigDecimal("42.50").compareTo(updated.getAmount()));
+        assertEquals(1L, repository.findVersionByOrderNumber("ORD-1").orElseThrow().getVersion());
+    }
+
+    @Test
+    void updateById_WithoutExpectedVersionAlwaysApplies() {
+        long id = insertOrder("ORD-1", "PENDING", millis(CUTOFF), 0);
+        repository.updateById(id, changes("SHIPPED"), null);
+
+        assertEquals(2L, repository.updateById(id, changes("DELIVERED"), null).orElseThrow().getVersion());
+    }
+
+    @Test
+    void updateById_StaleVersionThrowsAndLeavesRow() {
+        long id = insertOrder("ORD-1", "PENDING", millis(CUTOFF), 0);
+        repository.updateById(id, changes("SHIPPED"), 0L);
+
+        assertThrows(OptimisticLockingFailureException.class,
+            () -> repository.updateById(id, changes("CANCELLED"), 0L));
+
+        Order current = repository.findById(id).orElseThrow();
+        assertEquals("SHIPPED", current.getStatus());
+        assertEquals(1L, current.getVersion());
+    }
+
+    @Test
+    void updateById_MissingRowReturnsEmpty() {
+        assertTrue(repository.updateById(999L, changes("SHIPPED"), null).isEmpty());
+        assertTrue(repository.updateById(999L, changes("SHIPPED"), 3L).isEmpty());
+    }
+
+    @Test
+    void updateByOrderNumber_HonoursExpectedVersion() {
+        insertOrder("ORD-1", "PENDING", millis(CUTOFF), 0);
+
+        List<Order> updated = repository.updateByOrderNumber("ORD-1", changes("SHIPPED"), 0L);
+        assertEquals(1, updated.size());
+        assertEquals(1L, updated.get(0).getVersion());
+
+        assertThrows(OptimisticLockingFailureException.class,
+            () -> repository.updateByOrderNumber("ORD-1", changes("CANCELLED"), 0L));
+        assertTrue(repository.updateByOrderNumber("ORD-MISSING", changes("SHIPPED"), 0L).isEmpty());
+    }
+
+    @Test
+    void deleteById_DeletesOrderAndItsItems() {
+        long id = insertOrder("ORD-1", "PENDING", millis(CUTOFF), 3);
+        insertOrder("ORD-2", "PENDING", millis(CUTOFF), 2);
+
+        repository.deleteById(id);
+
+        assertTrue(repository.findById(id).isEmpty());
+        assertEquals(0, itemCount("ORD-1"));
+        assertEquals(2, itemCount("ORD-2"));
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    void countPurgeCandidates_MatchesStatusAndCutoffForIntegerAndTextTimestamps() {
+        insertOrder("ORD-1", "CANCELLED", millis(CUTOFF.minusDays(1)), 0);
+        insertOrder("ORD-2", "CANCELLED", "2023-12-31 23:59:59", 0);
+        insertOrder("ORD-3", "CANCELLED", millis(CUTOFF.plusSeconds(1)), 0);
+        insertOrder("ORD-4", "CANCELLED", "2024-01-01 00:00:01", 0);
+        insertOrder("ORD-5", "PENDING", millis(CUTOFF.minusDays(1)), 0);
+
+        assertEquals(2, repository.countPurgeCandidates("CANCELLED", CUTOFF));
+        assertEquals(3, repository.countPurgeCandidates(null, CUTOFF));
+    }
+
+    @Test
+    void purgeBatch_DeletesInBoundedBatchesWithItems() {
+        for (int i = 1; i <= 5; i++) {
+            insertOrder("ORD-OLD-" + i, "CANCELLED", i % 2 == 0 ? "2023-06-01 12:00:00" : millis(CUTOFF.minusDays(i)), 2);
+        }
+        insertOrder("ORD-NEW", "CANCELLED", millis(CUTOFF.plusDays(1)), 2);
+        insertOrder("ORD-OTHER", "PENDING", millis(CUTOFF.minusDays(1)), 2);
+
+        PurgeBatch first = repository.purgeBatch("CANCELLED", CUTOFF, 2, 0);
+        assertEquals(2, first.getOrderIds().size());
+        assertEquals(4, first.getItemsDeleted());
+        assertEquals(2, first.getLastId());
+        PurgeBatch second = repository.purgeBatch("CANCELLED", CUTOFF, 2, first.getLastId());
+        assertEquals(List.of(3L, 4L), second.getOrderIds());
+        PurgeBatch last = repository.purgeBatch("CANCELLED", CUTOFF, 2, second.getLastId());
+        assertEquals(List.of(5L), last.getOrderIds());
+        assertTrue(repository.purgeBatch("CANCELLED", CUTOFF, 2, last.getLastId()).isEmpty());
+
+        for (String orderNumber : first.getOrderNumbers()) {
+            assertEquals(0, itemCount(orderNumber));
+        }
+        assertEquals(2, repository.count());
+        assertTrue(repository.findByOrderNumber("ORD-NEW").isPresent());
+        assertTrue(repository.findByOrderNumber("ORD-OTHER").isPresent());
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM order_items", Integer.class));
+    }
+
+    @Test
+    void purgeBatch_SkipsCandidatesThatChangedAfterBeingSelected() {
+        long first = insertOrder("ORD-1", "CANCELLED", millis(CUTOFF.minusDays(1)), 1);
+        insertOrder("ORD-2", "CANCELLED", millis(CUTOFF.minusDays(1)), 1);
+        // Same ids as a batch would have selected, but ORD-1 was reopened in between
+        jdbcTemplate.update("UPDATE orders SET status = 'PENDING' WHERE id = ?", first);
+
+        PurgeBatch batch = repository.purgeBatch("CANCELLED", CUTOFF, 1, 0);
+
+        assertEquals(List.of("ORD-2"), batch.getOrderNumbers());
+        assertTrue(repository.findById(first).isPresent());
+        assertEquals(1, itemCount("ORD-1"));
+    }
+
+    @Test
+    void purgeBatch_WaitsForAConcurrentWriterInsteadOfFailing() throws Exception {
+        for (int i = 1; i <= 20; i++) {
+            insertOrder("ORD-" + i, "CANCELLED", millis(CUTOFF.minusDays(1)), 1);
+        }
+        CountDownLatch writing = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            // Holds RESERVED for a while, as a regular writer's open transaction would
+            try (Connection con = DriverManager.getConnection("jdbc:sqlite:" + tempDir.resolve("orders.db"))) {
+                con.setAutoCommit(false);
+                try (Statement statement = con.createStatement()) {
+                    statement.executeUpdate("INSERT INTO orders (order_number, customer_name, status) " +
+                                            "VALUES ('ORD-LIVE', 'Live Customer', 'PENDING')");
+                    writing.countDown();
+                    Thread.sleep(300);
+                }
+                con.commit();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        writer.start();
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        int purged = purgeAll("CANCELLED", 5);
+        writer.join();
+
+        assertEquals(20, purged);
+        assertTrue(repository.findByOrderNumber("ORD-LIVE").isPresent());
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    void incrementalVacuum_FreesRequestedPages() {
+        assertTrue(repository.isIncrementalVacuumEnabled());
+        for (int i = 0; i < 200; i++) {
+            insertOrder("ORD-" + i, "CANCELLED", millis(CUTOFF.minusDays(1)), 1);
+        }
+        purgeAll("CANCELLED", 50);
+        long freePages = freelistCount();
+        assertTrue(freePages > 20, "expected free pages after purge, got " + freePages);
+        long sizeBefore = repository.databaseSizeBytes();
+
+        assertEquals(10, repository.incrementalVacuum(10));
+        assertEquals(freePages - 10, freelistCount());
+
+        assertEquals(freePages - 10, repository.incrementalVacuum(0));
+        assertEquals(0, freelistCount());
+        assertTrue(repository.databaseSizeBytes() < sizeBefore);
+    }
+
+    @Test
+    void enableIncrementalVacuum_SwitchesAutoVacuumMode() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (Statement statement = con.createStatement()) {
+                statement.execute("PRAGMA auto_vacuum = NONE");
+                statement.execute("VACUUM");
+            }
+            return null;
+        });
+        assertFalse(repository.isIncrementalVacuumEnabled());
+
+        repository.enableIncrementalVacuum();
+
+        assertTrue(repository.isIncrementalVacuumEnabled());
+    }
+
+    @Test
+    void findRecentOrdersAndFindPage_OrderByCreatedAtAndId() {
+        for (int i = 1; i <= 5; i++) {
+            insertOrder("ORD-" + i, "PENDING", millis(CUTOFF.minusDays(i % 3)) + i, 0);
+        }
+
+        List<String> recent = repository.findRecentOrders(3).stream().map(Order::getOrderNumber).toList();
+        assertEquals(List.of("ORD-3", "ORD-4", "ORD-1"), recent);
+        List<Long> page = repository.findPage(1, 3).stream().map(Order::getId).toList();
+        assertEquals(List.of(2L, 3L, 4L), page);
+    }
+
+    private int purgeAll(String status, int batchSize) {
+        int purged = 0;
+        long lastId = 0;
+        while (true) {
+            PurgeBatch batch = repository.purgeBatch(status, CUTOFF, batchSize, lastId);
+            if (batch.isEmpty()) {
+                return purged;
+            }
+            purged += batch.getOrderIds().size();
+            lastId = batch.getLastId();
+        }
+    }
+
+    private long freelistCount() {
+        return jdbcTemplate.queryForObject("PRAGMA freelist_count", Long.class);
+    }
+}
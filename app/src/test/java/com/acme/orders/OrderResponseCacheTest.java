@@ -0,0 +1,93 @@
+package com.acme.orders;
+
+import com.acme.orders.cache.EncodedResponse;
+import com.acme.orders.cache.OrderResponseCache;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderResponseCacheTest {
+
+    private static final long V1 = 0;
+    private static final long V2 = 1;
+
+    private static byte[] json(int size) {
+        return "x".repeat(size).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void get_WithDifferentVersion_Misses() {
+        OrderResponseCache cache = new OrderResponseCache(true, 1024, false);
+        cache.put("ORD-1", 1L, V1, json(10));
+
+        assertNotNull(cache.get("ORD-1", 1L, V1));
+        assertNull(cache.get("ORD-1", 1L, V2));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void get_WithRecreatedOrderNumber_Misses() {
+        OrderResponseCache cache = new OrderResponseCache(true, 1024, false);
+        cache.put("ORD-1", 1L, V1, json(10));
+
+        // Deleted and created again under the same number: new id, version back at 0
+        assertNull(cache.get("ORD-1", 2L, V1));
+    }
+
+    @Test
+    void put_OverBudget_EvictsLeastRecentlyUsed() {
+        OrderResponseCache cache = new OrderResponseCache(true, 100, false);
+        cache.put("ORD-1", 1L, V1, json(40));
+        cache.put("ORD-2", 2L, V1, json(40));
+        cache.get("ORD-1", 1L, V1);
+
+        cache.put("ORD-3", 3L, V1, json(40));
+
+        assertNotNull(cache.get("ORD-1", 1L, V1));
+        assertNull(cache.get("ORD-2", 2L, V1));
+        assertEquals(80, cache.getCurrentBytes());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void invalidateByOrderId_RemovesEntry() {
+        OrderResponseCache cache = new OrderResponseCache(true, 1024, false);
+        cache.put("ORD-1", 7L, V1, json(10));
+
+        cache.invalidateByOrderId(7L);
+
+        assertNull(cache.get("ORD-1", 7L, V1));
+        assertEquals(0, cache.getCurrentBytes());
+    }
+
+    @Test
+    void offHeapEntry_WritesSameBytes() throws Exception {
+        OrderResponseCache cache = new OrderResponseCache(true, 1024, true);
+        byte[] body = "{\"orderNumber\":\"ORD-1\"}".getBytes(StandardCharsets.UTF_8);
+        cache.put("ORD-1", 1L, V1, body);
+
+        EncodedResponse cached = cache.get("ORD-1", 1L, V1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cached.writeTo(out);
+        cached.writeTo(out);
+
+        assertEquals(body.length, cached.size());
+        assertEquals(new String(body, StandardCharsets.UTF_8).repeat(2), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void offHeapPut_AllocatesDirectBufferOnlyForStoredEntries() {
+        OrderResponseCache disabled = new OrderResponseCache(false, 1024, true);
+        assertFalse(disabled.put("ORD-1", 1L, V1, json(10)).isOffHeap());
+
+        OrderResponseCache cache = new OrderResponseCache(true, 100, true);
+        assertFalse(cache.put("ORD-1", 1L, V1, json(101)).isOffHeap());
+        assertEquals(0, cache.getEntryCount());
+        assertTrue(cache.put("ORD-2", 2L, V1, json(10)).isOffHeap());
+        assertTrue(cache.get("ORD-2", 2L, V1).isOffHeap());
+    }
+}
@@ -0,0 +1,153 @@
+package com.acme.orders;
+
+import com.acme.orders.repository.OrderShards;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderShardsTest {
+
+    private static OrderShards shards(int count) {
+        List<OrderShards.Shard> shards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            shards.add(new OrderShards.Shard(i, null, null));
+        }
+        return new OrderShards(shards, List.of());
+    }
+
+    @Test
+    void shardIndex_SpreadsSequentialOrderNumbersEvenly() {
+        int[] perShard = new int[4];
+        for (int i = 1; i <= 40_000; i++) {
+            perShard[OrderShards.shardIndex(String.format("ORD-%08d", i), 4)]++;
+        }
+
+        for (int count : perShard) {
+            assertTrue(count > 9_000 && count < 11_000, "unbalanced shard: " + count);
+        }
+        assertEquals(0, OrderShards.shardIndex("ORD-00000001", 1));
+    }
+
+    @Test
+    void globalId_RoundTripsToShardAndLocalId() throws Exception {
+        OrderShards shards = shards(3);
+        try {
+            for (OrderShards.Shard shard : shards.all()) {
+                long id = shards.globalId(shard, 41);
+                assertSame(shard, shards.forId(id));
+                assertEquals(41, shards.localId(id));
+            }
+        } finally {
+            shards.destroy();
+        }
+    }
+
+    @Test
+    void scatter_ReturnsResultsInShardOrder() throws Exception {
+        OrderShards shards = shards(4);
+        try {
+            assertEquals(List.of(0, 10, 20, 30), shards.scatter(shard -> shard.getIndex() * 10));
+        } finally {
+            shards.destroy();
+        }
+    }
+
+    @Test
+    void scatter_RunsFirstShardOnCallingThread() throws Exception {
+        OrderShards shards = shards(3);
+        try {
+            List<Thread> threads = shards.scatter(shard -> Thread.currentThread());
+
+            assertSame(Thread.currentThread(), threads.get(0));
+            assertNotSame(Thread.currentThread(), threads.get(1));
+        } finally {
+            shards.destroy();
+        }
+    }
+
+    @Test
+    void scatter_ConcurrentCallersDoNotQueueBehindEachOther() throws Exception {
+        int callers = 4;
+        OrderShards shards = shards(2);
+        // Only passes once every caller has work running on both shards at the same time
+        CyclicBarrier allRunning = new CyclicBarrier(callers * 2);
+        ExecutorService callerPool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<List<Integer>>> calls = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                calls.add(callerPool.submit(() -> shards.scatter(shard -> {
+                    try {
+                        allRunning.await(5, TimeUnit.SECONDS);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return shard.getIndex();
+                })));
+            }
+            for (Future<List<Integer>> call : calls) {
+                assertEquals(List.of(0, 1), call.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            callerPool.shutdownNow();
+            shards.destroy();
+        }
+    }
+
+    @Test
+    void scatter_AllowsNullResults() throws Exception {
+        OrderShards single = shards(1);
+        OrderShards multiple = shards(2);
+        try {
+            assertEquals(Collections.singletonList(null), single.scatter(shard -> null));
+            assertEquals(Arrays.asList(null, null), multiple.scatter(shard -> null));
+        } finally {
+            single.destroy();
+            multiple.destroy();
+        }
+    }
+
+    @Test
+    void scatter_RethrowsShardFailure() throws Exception {
+        OrderShards shards = shards(2);
+        try {
+            IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, () ->
+                shards.scatter(shard -> {
+                    if (shard.getIndex() == 1) {
+                        throw new IllegalArgumentException("shard 1 down");
+                    }
+                    return shard.getIndex();
+                }));
+            assertEquals("shard 1 down", thrown.getMessage());
+        } finally {
+            shards.destroy();
+        }
+    }
+
+    @Test
+    void mergeSorted_MergesSkipsAndLimits() {
+        List<List<Integer>> lists = List.of(List.of(1, 4, 7, 10), List.of(2, 5, 8), List.of(), List.of(3, 6, 9));
+
+        assertEquals(List.of(1, 2, 3, 4, 5), OrderShards.mergeSorted(lists, Comparator.naturalOrder(), 0, 5));
+        assertEquals(List.of(7, 8, 9, 10), OrderShards.mergeSorted(lists, Comparator.naturalOrder(), 6, 100));
+        assertEquals(List.of(), OrderShards.mergeSorted(lists, Comparator.naturalOrder(), 20, 5));
+    }
+
+    @Test
+    void mergeSorted_DescendingOrder() {
+        List<List<Integer>> lists = List.of(List.of(9, 5, 1), List.of(8, 7, 2));
+
+        assertEquals(List.of(9, 8, 7, 5), OrderShards.mergeSorted(lists, Comparator.reverseOrder(), 0, 4));
+        assertEquals(List.of(5, 1), OrderShards.mergeSorted(List.of(List.of(9, 5, 1)), Comparator.reverseOrder(), 1, Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,219 @@
+package com.acme.orders;
+
+import com.acme.orders.columnar.OrderColumnStore;
+import com.acme.orders.config.ShardingConfig;
+import com.acme.orders.model.Order;
+import com.acme.orders.monitoring.SqlStatementRecorder;
+import com.acme.orders.repository.OrderRepository;
+import com.acme.orders.repository.OrderShards;
+import com.acme.orders.repository.PurgeBatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedOrderRepositoryTest {
+
+    private static final int SHARDS = 3;
+    private static final int ORDERS = 30;
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private OrderShards shards;
+    private OrderColumnStore columnStore;
+    private OrderRepository repository;
+    private final List<Order> saved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        shards = new ShardingConfig().orderShards(
+            null, null, new SqlStatementRecorder(false, 50, 5),
+            SHARDS, tempDir.resolve("shards/orders-shard-%d.db").toString(), 2,
+            List.of("classpath:schema.sql"), 4);
+        columnStore = new OrderColumnStore(false, 1);
+        repository = new OrderRepository(shards, columnStore);
+
+        for (int i = 1; i <= ORDERS; i++) {
+            String orderNumber = String.format("ORD-%08d", i);
+            Order order = repository.save(new Order(orderNumber, "Customer " + i, i % 3 == 0 ? "CANCELLED" : "PENDING",
+                                                    new BigDecimal("10.00")));
+            // Distinct, shuffled creation times so the recent-orders merge has work to do
+            setCreatedAt(orderNumber, BASE_TIME.minusMinutes((i * 7L) % ORDERS));
+            shards.forOrderNumber(orderNumber).getJdbcTemplate().update(
+                "INSERT INTO order_items (order_number, product_sku, product_name, quantity, unit_price) " +
+                "VALUES (?, 'SKU-1', 'Product 1', 1, 10.00)", orderNumber);
+            saved.add(order);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        shards.destroy();
+        columnStore.shutdown();
+    }
+
+    private void setCreatedAt(String orderNumber, LocalDateTime createdAt) {
+        shards.forOrderNumber(orderNumber).getJdbcTemplate().update(
+            "UPDATE orders SET created_at = ? WHERE order_number = ?", Timestamp.valueOf(createdAt), orderNumber);
+    }
+
+    private long rowsInShard(int index, String table) {
+        return shards.all().get(index).getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    @Test
+    void save_PlacesEachOrderInItsHashShardWithRoutableId() {
+        assertTrue(Files.exists(tempDir.resolve("shards/orders-shard-2.db")));
+        long[] expected = new long[SHARDS];
+        Set<Long> ids = new HashSet<>();
+        for (Order order : saved) {
+            int shard = OrderShards.shardIndex(order.getOrderNumber(), SHARDS);
+            expected[shard]++;
+            assertEquals(shard, shards.forId(order.getId()).getIndex());
+            assertTrue(ids.add(order.getId()), "duplicate id " + order.getId());
+
+            Order found = repository.findById(order.getId()).orElseThrow();
+            assertEquals(order.getOrderNumber(), found.getOrderNumber());
+            assertEquals(order.getId(), found.getId());
+            assertEquals(order.getId(), repository.findByOrderNumber(order.getOrderNumber()).orElseThrow().getId());
+        }
+        for (int i = 0; i < SHARDS; i++) {
+            assertTrue(expected[i] > 0, "shard " + i + " is empty");
+            assertEquals(expected[i], rowsInShard(i, "orders"));
+            assertEquals(expected[i], rowsInShard(i, "order_items"));
+        }
+    }
+
+    @Test
+    void count_SumsAllShards() {
+        assertEquals(ORDERS, repository.count());
+    }
+
+    @Test
+    void findRecentOrders_MergesShardsByCreatedAt() {
+        List<String> recent = repository.findRecentOrders(7).stream().map(Order::getOrderNumber).toList();
+
+        List<String> expectedNumbers = new ArrayList<>();
+        for (Order order : saved) {
+            expectedNumbers.add(order.getOrderNumber());
+        }
+        // ORD-n was created (n * 7) % ORDERS minutes before BASE_TIME
+        expectedNumbers.sort(Comparator.comparingLong(number -> (Long.parseLong(number.substring(4)) * 7L) % ORDERS));
+        assertEquals(expectedNumbers.subList(0, 7), recent);
+    }
+
+    @Test
+    void findPage_MergesShardsByGlobalId() {
+        List<Long> ids = new ArrayList<>();
+        for (Order order : saved) {
+            ids.add(order.getId());
+        }
+        ids.sort(Comparator.naturalOrder());
+
+        assertEquals(ids.subList(5, 15), repository.findPage(5, 10).stream().map(Order::getId).toList());
+        assertEquals(ids, repository.findAll().stream().map(Order::getId).toList());
+    }
+
+    @Test
+    void findOrderWithItems_ReadsItemsFromTheOrderShard() {
+        Order order = repository.findOrderWithItemsByOrderNumber(saved.get(4).getOrderNumber()).orElseThrow();
+
+        assertEquals(1, order.getItems().size());
+        assertEquals(order.getOrderNumber(), order.getItems().get(0).getOrderNumber());
+    }
+
+    @Test
+    void updateById_RoutesThroughLocalId() {
+        Order target = saved.get(10);
+        Order changes = new Order();
+        changes.setCustomerName("Updated");
+        changes.setStatus("SHIPPED");
+        changes.setAmount(new BigDecimal("99.00"));
+
+        Order updated = repository.updateById(target.getId(), changes, 0L).orElseThrow();
+
+        assertEquals(target.getId(), updated.getId());
+        assertEquals(1L, updated.getVersion());
+        assertThrows(OptimisticLockingFailureException.class, () -> repository.updateById(target.getId(), changes, 0L));
+        assertEquals(1L, repository.findVersionByOrderNumber(target.getOrderNumber()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void deleteById_DeletesOnlyFromTheOrderShard() {
+        Order target = saved.get(7);
+        int shard = shards.forId(target.getId()).getIndex();
+        long before = rowsInShard(shard, "order_items");
+
+        repository.deleteById(target.getId());
+
+        assertTrue(repository.findById(target.getId()).isEmpty());
+        assertEquals(before - 1, rowsInShard(shard, "order_items"));
+        assertEquals(ORDERS - 1, repository.count());
+        for (Order other : saved) {
+            if (other != target) {
+                assertTrue(repository.findById(other.getId()).isPresent());
+            }
+        }
+    }
+
+    @Test
+    void purgeBatch_DrainsEveryShard() {
+        LocalDateTime cutoff = BASE_TIME.plusDays(1);
+        assertEquals(ORDERS / 3, repository.countPurgeCandidates("CANCELLED", cutoff));
+
+        Set<Long> purged = new HashSet<>();
+        long lastId = 0;
+        while (true) {
+            PurgeBatch batch = repository.purgeBatch("CANCELLED", cutoff, 4, lastId);
+            if (batch.isEmpty()) {
+                break;
+            }
+            assertTrue(batch.getOrderIds().size() <= 4);
+            // The cursor walks shard 0, then 1, then 2
+            assertTrue(shards.forId(batch.getLastId()).getIndex() >= shards.forId(lastId).getIndex());
+            purged.addAll(batch.getOrderIds());
+            lastId = batch.getLastId();
+        }
+
+        Set<Long> cancelled = new HashSet<>();
+        for (Order order : saved) {
+            if (order.getStatus().equals("CANCELLED")) {
+                cancelled.add(order.getId());
+            }
+        }
+        assertEquals(cancelled, purged);
+        assertEquals(0, repository.countPurgeCandidates("CANCELLED", cutoff));
+        assertEquals(ORDERS - cancelled.size(), repository.count());
+        assertTrue(repository.incrementalVacuum(0) >= 0);
+        assertTrue(repository.isIncrementalVacuumEnabled());
+    }
+
+    @Test
+    void scanOrderColumns_StreamsAllShardsInGlobalIdOrder() {
+        List<Long> scanned = new ArrayList<>();
+        repository.scanOrderColumns(4, (id, version, status, amount, amountNull, createdAtMillis) -> scanned.add(id));
+
+        List<Long> ids = new ArrayList<>();
+        for (Order order : saved) {
+            ids.add(order.getId());
+        }
+        ids.sort(Comparator.naturalOrder());
+        assertEquals(ids, scanned);
+    }
+}
@@ -0,0 +1,114 @@
+package com.acme.orders;
+
+import com.acme.orders.monitoring.SqlStatementRecorder;
+import com.acme.orders.monitoring.StatementSample;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementRecorderTest {
+
+    private static long millis(long ms) {
+        return TimeUnit.MILLISECONDS.toNanos(ms);
+    }
+
+    @Test
+    void record_KeepsOnlySlowestN() {
+        SqlStatementRecorder recorder = new SqlStatementRecorder(true, 1000, 3);
+
+        for (int i = 1; i <= 10; i++) {
+            recorder.record("SELECT " + i, 0, millis(i), 1, sql -> "plan");
+        }
+
+        List<StatementSample> slowest = recorder.getSlowest();
+        assertEquals(3, slowest.size());
+        assertEquals("SELECT 10", slowest.get(0).getSql());
+        assertEquals("SELECT 8", slowest.get(2).getSql());
+        assertEquals(10, recorder.getStatementCount());
+        assertEquals(0, recorder.getSlowStatementCount());
+    }
+
+    @Test
+    void record_ExplainsSlowStatementOncePerSql() {
+        SqlStatementRecorder recorder = new SqlStatementRecorder(true, 50, 5);
+        AtomicInteger explainCalls = new AtomicInteger();
+
+        recorder.record("SELECT * FROM orders WHERE status = ?", 1, millis(80), 10, sql -> {
+            explainCalls.incrementAndGet();
+            return "SCAN orders";
+        });
+        recorder.record("SELECT * FROM orders WHERE status = ?", 1, millis(90), 12, sql -> {
+            explainCalls.incrementAndGet();
+            return "SCAN orders";
+        });
+        recorder.record("SELECT * FROM orders WHERE id = ?", 1, millis(1), 1, sql -> {
+            explainCalls.incrementAndGet();
+            return "SEARCH orders";
+        });
+
+        assertEquals(1, explainCalls.get());
+        assertEquals(2, recorder.getSlowStatementCount());
+        assertEquals("SCAN orders", recorder.getQueryPlans().get("SELECT * FROM orders WHERE status = ?"));
+        assertNull(recorder.getSlowest().get(2).getQueryPlan());
+    }
+
+    @Test
+    void record_DoesNotBlockOtherStatementsWhileExplaining() throws Exception {
+        SqlStatementRecorder recorder = new SqlStatementRecorder(true, 50, 5);
+        String slowSql = "SELECT * FROM orders WHERE status = ?";
+        // Same ConcurrentHashMap bin as slowSql, which is where computeIfAbsent would block
+        String neighbourSql = null;
+        for (int i = 0; neighbourSql == null; i++) {
+            String candidate = "SELECT " + i;
+            if (bin(candidate) == bin(slowSql)) {
+                neighbourSql = candidate;
+            }
+        }
+        CountDownLatch explaining = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread explainer = new Thread(() -> recorder.record(slowSql, 1, millis(80), 10, sql -> {
+            explaining.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "SCAN orders";
+        }));
+        explainer.start();
+        try {
+            assertTrue(explaining.await(5, TimeUnit.SECONDS));
+            String neighbour = neighbourSql;
+            assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> recorder.record(neighbour, 0, millis(80), 1, sql -> "SCAN neighbour"));
+            assertEquals("SCAN neighbour", recorder.getQueryPlans().get(neighbourSql));
+        } finally {
+            release.countDown();
+            explainer.join();
+        }
+        assertEquals("SCAN orders", recorder.getQueryPlans().get(slowSql));
+    }
+
+    private static int bin(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & 15;
+    }
+
+    @Test
+    void reset_ClearsSamplesAndPlans() {
+        SqlStatementRecorder recorder = new SqlStatementRecorder(true, 0, 5);
+        recorder.record("SELECT 1", 0, millis(5), 1, sql -> "plan");
+
+        recorder.reset();
+
+        assertTrue(recorder.getSlowest().isEmpty());
+        assertTrue(recorder.getQueryPlans().isEmpty());
+        assertEquals(0, recorder.getStatementCount());
+    }
+}
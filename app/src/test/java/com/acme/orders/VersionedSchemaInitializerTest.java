@@ -0,0 +1,189 @@
+package com.acme.orders;
+
+import com.acme.orders.config.VersionedSchemaInitializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionedSchemaInitializerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:sqlite:" + tempDir.resolve("orders.db"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    // orders/order_items as they were before the version column (schema versions 0 to 2)
+    private void createPreVersionSchema(int userVersion) {
+        jdbcTemplate.execute("CREATE TABLE orders (id INTEGER PRIMARY KEY AUTOINCREMENT, order_number TEXT NOT NULL, " +
+            "customer_name TEXT NOT NULL, customer_email TEXT, status TEXT NOT NULL DEFAULT 'PENDING', amount DECIMAL(10,2), " +
+            "shipping_address TEXT, order_metadata TEXT, created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+            "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE order_items (id INTEGER PRIMARY KEY AUTOINCREMENT, order_number TEXT NOT NULL, " +
+            "product_sku TEXT NOT NULL, product_name TEXT NOT NULL, quantity INTEGER NOT NULL DEFAULT 1, " +
+            "unit_price DECIMAL(10,2) NOT NULL, created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO orders (order_number, customer_name, status, amount) VALUES ('ORD-1', 'Existing', 'PENDING', 10)");
+        jdbcTemplate.execute("PRAGMA user_version = " + userVersion);
+    }
+
+    private boolean hasVersionColumn() {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM pragma_table_info('orders') WHERE name = 'version'", Integer.class) > 0;
+    }
+
+    private VersionedSchemaInitializer initializer(DatabaseInitializationMode mode, int schemaVersion) {
+        return initializer(mode, schemaVersion, List.of("classpath:schema.sql"));
+    }
+
+    private VersionedSchemaInitializer initializer(DatabaseInitializationMode mode, int schemaVersion,
+                                                   List<String> schemaLocations) {
+        SqlInitializationProperties properties = new SqlInitializationProperties();
+        properties.setSchemaLocations(schemaLocations);
+        properties.setMode(mode);
+        return new VersionedSchemaInitializer(dataSource, properties, schemaVersion);
+    }
+
+    private int userVersion() {
+        return jdbcTemplate.queryForObject("PRAGMA user_version", Integer.class);
+    }
+
+    private boolean hasIndex(String name) {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM sqlite_master WHERE type = 'index' AND name = ?", Integer.class, name) > 0;
+    }
+
+    @Test
+    void initializeDatabase_FreshDatabaseRunsSchemaAndStampsVersion() {
+        assertTrue(initializer(DatabaseInitializationMode.ALWAYS, 3).initializeDatabase());
+
+        assertEquals(3, userVersion());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+        assertTrue(hasIndex("idx_orders_status_created_at"));
+    }
+
+    @Test
+    void initializeDatabase_SkipsWhenVersionIsCurrent() {
+        initializer(DatabaseInitializationMode.ALWAYS, 3).initializeDatabase();
+        jdbcTemplate.execute("DROP INDEX idx_orders_status_created_at");
+
+        assertFalse(initializer(DatabaseInitializationMode.ALWAYS, 3).initializeDatabase());
+
+        // schema.sql did not run again, or the index would be back
+        assertFalse(hasIndex("idx_orders_status_created_at"));
+        assertEquals(3, userVersion());
+    }
+
+    @Test
+    void initializeDatabase_RerunsSchemaWhenVersionIsBumped() {
+        initializer(DatabaseInitializationMode.ALWAYS, 3).initializeDatabase();
+        jdbcTemplate.execute("DROP INDEX idx_orders_status_created_at");
+
+        assertTrue(initializer(DatabaseInitializationMode.ALWAYS, 4).initializeDatabase());
+
+        assertTrue(hasIndex("idx_orders_status_created_at"));
+        assertEquals(4, userVersion());
+    }
+
+    @Test
+    void initializeDatabase_NeverModeLeavesDatabaseUntouched() {
+        assertFalse(initializer(DatabaseInitializationMode.NEVER, 3).initializeDatabase());
+
+        assertEquals(0, userVersion());
+        assertEquals(0, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM sqlite_master WHERE type = 'table' AND name = 'orders'", Integer.class));
+    }
+
+    @Test
+    void initializeDatabase_MigratesBaselineDatabaseFromVersionZero() {
+        createPreVersionSchema(0);
+
+        assertTrue(initializer(DatabaseInitializationMode.ALWAYS, 3).initializeDatabase());
+
+        assertTrue(hasVersionColumn());
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT version FROM orders WHERE order_number = 'ORD-1'", Long.class));
+        assertTrue(hasIndex("idx_order_items_order_number"));
+        assertEquals(3, userVersion());
+    }
+
+    @Test
+    void initializeDatabase_MigratesFromVersionTwo() {
+        createPreVersionSchema(2);
+
+        assertTrue(initializer(DatabaseInitializationMode.ALWAYS, 3).initializeDatabase());
+
+        assertTrue(hasVersionColumn());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class));
+        assertEquals(3, userVersion());
+    }
+
+    @Test
+    void initializeDatabase_NeverModeSkipsMigrations() {
+        createPreVersionSchema(2);
+
+        assertFalse(initializer(DatabaseInitializationMode.NEVER, 3).initializeDatabase());
+
+        assertFalse(hasVersionColumn());
+        assertEquals(2, userVersion());
+    }
+
+    @Test
+    void initializeDatabase_EmbeddedModeSkipsMigrationsOnAFileDatabase() {
+        createPreVersionSchema(2);
+
+        assertFalse(initializer(DatabaseInitializationMode.EMBEDDED, 3).initializeDatabase());
+
+        assertFalse(hasVersionColumn());
+        assertEquals(2, userVersion());
+    }
+
+    @Test
+    void initializeDatabase_FailedSchemaRollsBackTheFinalMigration() throws Exception {
+        createPreVersionSchema(2);
+        List<String> broken = List.of("classpath:schema.sql", brokenScript());
+
+        assertThrows(RuntimeException.class, () -> initializer(DatabaseInitializationMode.ALWAYS, 3, broken).initializeDatabase());
+
+        assertFalse(hasVersionColumn());
+        assertEquals(2, userVersion());
+        assertTrue(initializer(DatabaseInitializationMode.ALWAYS, 3).initializeDatabase());
+        assertTrue(hasVersionColumn());
+        assertEquals(3, userVersion());
+    }
+
+    @Test
+    void initializeDatabase_CompletedMigrationIsNotReplayedAfterAFailedBoot() throws Exception {
+        createPreVersionSchema(2);
+
+        assertThrows(RuntimeException.class,
+            () -> initializer(DatabaseInitializationMode.ALWAYS, 4, List.of(brokenScript())).initializeDatabase());
+
+        // V3 committed with its own stamp, so the retry starts at 4 instead of re-adding the column
+        assertTrue(hasVersionColumn());
+        assertEquals(3, userVersion());
+        assertTrue(initializer(DatabaseInitializationMode.ALWAYS, 4).initializeDatabase());
+        assertEquals(4, userVersion());
+        assertTrue(hasIndex("idx_orders_status"));
+    }
+
+    private String brokenScript() throws Exception {
+        Path script = tempDir.resolve("broken.sql");
+        Files.writeString(script, "CREATE TABLE broken (;");
+        return script.toUri().toString();
+    }
+}
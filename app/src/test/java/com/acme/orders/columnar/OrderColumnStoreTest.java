@@ -0,0 +1,167 @@
+package com.acme.orders.columnar;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderColumnStoreTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private OrderColumnStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new OrderColumnStore(true, 2);
+        // Hooks are dropped until the snapshot is ready, so go through an empty load first
+        store.onInsert(1, "PENDING", BigDecimal.ONE, NOW);
+        assertFalse(store.isReady());
+        store.finishLoad(store.beginLoad(0));
+
+        for (int i = 1; i <= 200_000; i++) {
+            String status = i % 4 == 0 ? "PENDING" : "SHIPPED";
+            store.onInsert(i, status, BigDecimal.valueOf(i, 2), NOW.minusHours(i % 96));
+        }
+    }
+
+    @Test
+    void query_FiltersAndSortsByAmountDescending() {
+        ColumnarQuery query = new ColumnarQuery();
+        query.setStatus("PENDING");
+        query.setMinAmount(new BigDecimal("100.00"));
+        query.setCreatedAfter(NOW.minusDays(3));
+        query.setLimit(3);
+
+        ColumnarQueryResult result = store.query(query);
+
+        List<OrderSnapshotRow> rows = result.getRows();
+        assertEquals(3, rows.size());
+        assertEquals(200_000L, rows.get(0).getId());
+        assertEquals(new BigDecimal("2000.00"), rows.get(0).getAmount());
+        assertEquals(199_996L, rows.get(1).getId());
+        assertTrue(rows.stream().allMatch(r -> r.getStatus().equals("PENDING")));
+        assertTrue(result.getMatched() > 3);
+    }
+
+    @Test
+    void query_SortsAscendingAndCountsAllMatches() {
+        ColumnarQuery query = new ColumnarQuery();
+        query.setStatus("PENDING");
+        query.setDescending(false);
+        query.setLimit(2);
+
+        ColumnarQueryResult result = store.query(query);
+
+        assertEquals(50_000, result.getMatched());
+        assertEquals(4L, result.getRows().get(0).getId());
+        assertEquals(8L, result.getRows().get(1).getId());
+    }
+
+    @Test
+    void writeHooks_KeepSnapshotCurrent() {
+        store.onUpdate(8, 1, "CANCELLED", new BigDecimal("5000.00"), NOW);
+        store.onDelete(4);
+
+        ColumnarQuery query = new ColumnarQuery();
+        query.setStatus("CANCELLED");
+        ColumnarQueryResult cancelled = store.query(query);
+        assertEquals(1, cancelled.getMatched());
+        assertEquals(8L, cancelled.getRows().get(0).getId());
+
+        assertEquals(1, store.getTombstoneCount());
+        assertEquals(199_999, store.getRowCount());
+    }
+
+    @Test
+    void writeHooks_OutOfOrderDeliveryKeepsNewestVersion() {
+        store.onUpdate(8, 3, "CANCELLED", new BigDecimal("30.00"), NOW);
+        store.onUpdate(8, 2, "DELIVERED", new BigDecimal("20.00"), NOW);
+
+        ColumnarQuery query = new ColumnarQuery();
+        query.setStatus("DELIVERED");
+        assertEquals(0, store.query(query).getMatched());
+        query.setStatus("CANCELLED");
+        assertEquals(8L, store.query(query).getRows().get(0).getId());
+    }
+
+    @Test
+    void writeHooks_HooksOvertakingTheirInsertStillLand() {
+        store.onUpdate(300_001, 1, "CANCELLED", new BigDecimal("1.00"), NOW);
+        store.onInsert(300_001, "PENDING", new BigDecimal("1.00"), NOW);
+        store.onDelete(300_002);
+        store.onInsert(300_002, "CANCELLED", new BigDecimal("1.00"), NOW);
+
+        ColumnarQuery query = new ColumnarQuery();
+        query.setStatus("CANCELLED");
+        ColumnarQueryResult cancelled = store.query(query);
+        assertEquals(1, cancelled.getMatched());
+        assertEquals(300_001L, cancelled.getRows().get(0).getId());
+        assertEquals(200_001, store.getRowCount());
+    }
+
+    @Test
+    void query_UnknownStatus_ReturnsEmpty() {
+        ColumnarQuery query = new ColumnarQuery();
+        query.setStatus("NO_SUCH_STATUS");
+
+        assertEquals(0, store.query(query).getMatched());
+    }
+
+    @Test
+    void writeHooks_DoNotWaitForARunningScan() {
+        OrderColumnStore.Columns scanning = store.beginScan();
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> store.onUpdate(8, 1, "CANCELLED", new BigDecimal("5000.00"), NOW));
+            // Journaled, so the pinned arrays do not change under the scan
+            assertEquals(200_000, scanning.size);
+            assertEquals(new BigDecimal("0.08"), BigDecimal.valueOf(scanning.amountCents[7], 2));
+        } finally {
+            store.endScan();
+        }
+
+        ColumnarQuery query = new ColumnarQuery();
+        query.setStatus("CANCELLED");
+        assertEquals(8L, store.query(query).getRows().get(0).getId());
+    }
+
+    @Test
+    void writeHooks_OutOfRangeAmountSaturates() {
+        store.onUpdate(8, 1, "SHIPPED", new BigDecimal("1e40"), NOW);
+
+        ColumnarQuery query = new ColumnarQuery();
+        query.setLimit(1);
+        assertTrue(store.isReady());
+        assertEquals(8L, store.query(query).getRows().get(0).getId());
+    }
+
+    @Test
+    void writeHooks_UnapplicableWriteDisablesSnapshotWithoutThrowing() {
+        // Past the dictionary's capacity the next new status cannot be encoded
+        for (int i = 0; i < Short.MAX_VALUE; i++) {
+            store.onInsert(300_000 + i, "STATUS-" + i, BigDecimal.ONE, NOW);
+        }
+
+        assertFalse(store.isReady());
+        assertThrows(IllegalStateException.class, () -> store.query(new ColumnarQuery()));
+        assertDoesNotThrow(() -> store.onDelete(4));
+    }
+
+    @Test
+    void finishLoad_DiscardsLoadThatMissedAFailedWrite() {
+        OrderColumnStore.Columns builder = store.beginLoad(0);
+        for (int i = 0; i < Short.MAX_VALUE; i++) {
+            store.onInsert(300_000 + i, "STATUS-" + i, BigDecimal.ONE, NOW);
+        }
+
+        assertFalse(store.finishLoad(builder));
+        assertFalse(store.isReady());
+        assertFalse(store.isLoading());
+    }
+}
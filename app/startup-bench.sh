@@ -0,0 +1,117 @@
+#!/bin/bash
+# Startup benchmark for Orders application
+# Measures time from JVM launch to the first successful API request.
+#
+# Usage:
+#   ./startup-bench.sh [jar|fast] [runs]
+#
+#   jar  - plain executable jar (mvn package)
+#   fast - AOT context + AppCDS archive (mvn -Pfast-startup package)
+
+set -e
+
+MODE="${1:-jar}"
+RUNS="${2:-5}"
+BASE_URL="http://localhost:8080"
+PROBE_URL="$BASE_URL/api/orders/count"
+TIMEOUT_MS=60000
+JAR="target/orders-1.0.0.jar"
+
+echo "========================================"
+echo "  ACME Orders - Startup Benchmark"
+echo "========================================"
+echo ""
+
+case "$MODE" in
+    jar)
+        CMD=(java -jar "$JAR")
+        ;;
+    fast)
+        JAR="target/cds/orders-1.0.0.jar"
+        if [ ! -f "target/cds/orders.jsa" ]; then
+            echo "ERROR: target/cds/orders.jsa not found."
+            echo "Build it first with:"
+            echo "  mvn -Pfast-startup package -s settings-local.xml"
+            exit 1
+        fi
+        CMD=(java -XX:SharedArchiveFile=target/cds/orders.jsa -Dspring.aot.enabled=true \
+             -Dspring.profiles.active=fast -jar "$JAR")
+        ;;
+    *)
+        echo "Unknown mode: $MODE (expected jar or fast)"
+        exit 1
+        ;;
+esac
+
+if [ ! -f "$JAR" ]; then
+    echo "ERROR: $JAR not found. Build the application first."
+    exit 1
+fi
+
+if curl -s "$PROBE_URL" > /dev/null 2>&1; then
+    echo "ERROR: Something is already listening on $BASE_URL"
+    echo "Stop the running application before benchmarking startup."
+    exit 1
+fi
+
+echo "Mode: $MODE"
+echo "Command: ${CMD[*]}"
+echo "Running $RUNS cold starts..."
+echo ""
+
+TOTAL_TIME=0
+MIN_TIME=0
+MAX_TIME=0
+TIMES=""
+for i in $(seq 1 "$RUNS"); do
+    START=$(date +%s%N)
+    "${CMD[@]}" > /dev/null 2>&1 &
+    PID=$!
+
+    DURATION=-1
+    while true; do
+        if curl -sf "$PROBE_URL" > /dev/null 2>&1; then
+            END=$(date +%s%N)
+            DURATION=$(( (END - START) / 1000000 ))
+            break
+        fi
+        if ! kill -0 "$PID" 2>/dev/null; then
+            break
+        fi
+        if [ $(( ($(date +%s%N) - START) / 1000000 )) -gt "$TIMEOUT_MS" ]; then
+            break
+        fi
+        sleep 0.02
+    done
+
+    kill "$PID" 2>/dev/null || true
+    wait "$PID" 2>/dev/null || true
+
+    if [ "$DURATION" -lt 0 ]; then
+        echo "ERROR: Run $i did not serve a successful request within ${TIMEOUT_MS}ms"
+        exit 1
+    fi
+
+    echo "  Run $i: ${DURATION}ms"
+    TIMES="$TIMES ${DURATION}ms"
+    TOTAL_TIME=$((TOTAL_TIME + DURATION))
+    if [ "$MIN_TIME" -eq 0 ] || [ "$DURATION" -lt "$MIN_TIME" ]; then
+        MIN_TIME=$DURATION
+    fi
+    if [ "$DURATION" -gt "$MAX_TIME" ]; then
+        MAX_TIME=$DURATION
+    fi
+done
+
+AVG=$((TOTAL_TIME / RUNS))
+
+echo ""
+echo "========================================"
+echo "  Results Summary"
+echo "========================================"
+echo ""
+printf "  %-35s %8s\n" "Time to first successful request" ""
+printf "  %-35s %6dms\n" "Average" "$AVG"
+printf "  %-35s %6dms\n" "Min" "$MIN_TIME"
+printf "  %-35s %6dms\n" "Max" "$MAX_TIME"
+echo ""